@@ -3,6 +3,8 @@ package org.johndoe.kitchensink;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 
 /**
@@ -10,6 +12,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
  */
 @SpringBootApplication
 @EnableCaching
+@EnableAsync
+@EnableScheduling
 @EnableMethodSecurity(prePostEnabled = true)
 public class KitchenSinkApplication {
 
@@ -0,0 +1,28 @@
+package org.johndoe.kitchensink.annotations;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.*;
+
+/**
+ * Checks that the username, email and phone number of a member are not registered yet, with one
+ * query for the three of them. Each taken field is reported on its own property.
+ */
+@Documented
+@Constraint(validatedBy = UniqueMemberValidator.class)
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UniqueMember {
+    String message() default "Member already registered";
+
+    String usernameMessage() default "Username already registered, please use another";
+
+    String emailMessage() default "Email already registered, please use another";
+
+    String phoneNumberMessage() default "Phone number already registered, please use another";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,46 @@
+package org.johndoe.kitchensink.annotations;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.johndoe.kitchensink.dtos.MemberConflicts;
+import org.johndoe.kitchensink.dtos.MemberDto;
+import org.johndoe.kitchensink.services.MemberService;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UniqueMemberValidator implements ConstraintValidator<UniqueMember, MemberDto> {
+
+    private final MemberService memberService;
+    private UniqueMember constraint;
+
+    public UniqueMemberValidator(MemberService memberService) {
+        this.memberService = memberService;
+    }
+
+    @Override
+    public void initialize(UniqueMember constraint) {
+        this.constraint = constraint;
+    }
+
+    @Override
+    public boolean isValid(MemberDto member, ConstraintValidatorContext context) {
+        if (member == null) {
+            return true;
+        }
+        MemberConflicts conflicts = memberService.findConflicts(member);
+        if (!conflicts.any()) {
+            return true;
+        }
+        context.disableDefaultConstraintViolation();
+        if (conflicts.username()) {
+            context.buildConstraintViolationWithTemplate(constraint.usernameMessage()).addPropertyNode("username").addConstraintViolation();
+        }
+        if (conflicts.email()) {
+            context.buildConstraintViolationWithTemplate(constraint.emailMessage()).addPropertyNode("email").addConstraintViolation();
+        }
+        if (conflicts.phoneNumber()) {
+            context.buildConstraintViolationWithTemplate(constraint.phoneNumberMessage()).addPropertyNode("phoneNumber").addConstraintViolation();
+        }
+        return false;
+    }
+}
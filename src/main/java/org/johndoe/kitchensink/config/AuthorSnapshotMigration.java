@@ -0,0 +1,142 @@
+package org.johndoe.kitchensink.config;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.AuthorSnapshot;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.documents.Post;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * One-time migration that embeds an author snapshot into posts and comments written before
+ * snapshots existed. Only documents without a snapshot are touched, so running it again is a no-op.
+ * Once it has completed, it is recorded in {@link MigrationMarkers} and skipped on later startups,
+ * as posts and comments have been written with their snapshots since.
+ */
+@Component
+public class AuthorSnapshotMigration implements CommandLineRunner {
+
+    /**
+     * Logger for AuthorSnapshotMigration.
+     */
+    private static final Logger log = LoggerFactory.getLogger(AuthorSnapshotMigration.class);
+
+    /**
+     * Number of documents whose members are resolved and updated together.
+     */
+    static final int BATCH_SIZE = 500;
+
+    /**
+     * Name under which completion is recorded.
+     */
+    static final String NAME = "author-snapshots";
+
+    private final MongoTemplate mongoTemplate;
+    private final MigrationMarkers migrationMarkers;
+
+    /**
+     * Flag to indicate if the migration should run on startup.
+     */
+    @Value("${app.migration.author-snapshots:true}")
+    boolean enabled;
+
+    /**
+     * Constructs a new AuthorSnapshotMigration.
+     *
+     * @param mongoTemplate    the mongo template
+     * @param migrationMarkers the markers of completed migrations
+     */
+    public AuthorSnapshotMigration(MongoTemplate mongoTemplate, MigrationMarkers migrationMarkers) {
+        this.mongoTemplate = mongoTemplate;
+        this.migrationMarkers = migrationMarkers;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled || migrationMarkers.isCompleted(NAME)) {
+            return;
+        }
+        long posts = backfill(Post.class);
+        long comments = backfill(Comment.class);
+        if (posts + comments > 0) {
+            log.info("Backfilled author snapshots on {} posts and {} comments", posts, comments);
+        }
+        migrationMarkers.markCompleted(NAME);
+    }
+
+    /**
+     * Streams every document of the given type that has no snapshot yet and backfills it in batches.
+     *
+     * @param entityClass the authored document type
+     * @return the number of documents updated
+     */
+    long backfill(Class<?> entityClass) {
+        Query missingSnapshot = new Query(where("author").exists(false).and("member").exists(true));
+        missingSnapshot.fields().include("member");
+        missingSnapshot.cursorBatchSize(BATCH_SIZE);
+
+        long updated = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(missingSnapshot, Document.class, mongoTemplate.getCollectionName(entityClass))) {
+            Iterator<Document> iterator = documents.iterator();
+            List<Document> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == BATCH_SIZE || !iterator.hasNext()) {
+                    updated += backfillBatch(entityClass, batch);
+                    batch.clear();
+                }
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Resolves the members referenced by a batch with one query and writes their snapshots in one bulk operation.
+     *
+     * @param entityClass the authored document type
+     * @param batch       the raw documents, holding only their ID and member reference
+     * @return the number of documents updated
+     */
+    private long backfillBatch(Class<?> entityClass, List<Document> batch) {
+        List<Object> memberIds = batch.stream()
+                .map(document -> document.get("member", DBRef.class))
+                .filter(Objects::nonNull)
+                .map(DBRef::getId)
+                .distinct()
+                .toList();
+        Map<String, Member> members = mongoTemplate.find(new Query(where("_id").in(memberIds)), Member.class).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+        int queued = 0;
+        for (Document document : batch) {
+            DBRef reference = document.get("member", DBRef.class);
+            Member member = reference == null ? null : members.get(reference.getId().toString());
+            if (member != null) {
+                bulk.updateOne(new Query(where("_id").is(document.get("_id"))), new Update().set("author", AuthorSnapshot.of(member)));
+                queued++;
+            }
+        }
+        return queued == 0 ? 0 : bulk.execute().getModifiedCount();
+    }
+}
@@ -0,0 +1,58 @@
+package org.johndoe.kitchensink.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration class for the application caches.
+ * Backs them with Caffeine caches bounded by the estimated heap size of their entries and expiring
+ * after a time to live, as set by {@link CacheProperties}. Concurrent misses on the same key are
+ * coalesced into one load, and entries may be refreshed in the background before they expire.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * Default constructor for CacheConfig.
+     */
+    public CacheConfig() {
+    }
+
+    /**
+     * Creates the cache manager. Caches with a spec of their own are created upfront; any other
+     * cache is created with the default spec when first used.
+     *
+     * @param properties the bounds of the caches
+     * @return the cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCaffeine(builder(properties.getDefaults()));
+        properties.getSpecs().forEach((name, spec) -> caffeineCacheManager.registerCustomCache(name, builder(spec).build()));
+        // Refreshes wait on the database, so each runs on a virtual thread of its own.
+        return new CoalescingCacheManager(caffeineCacheManager, name -> properties.specOf(name).getRefreshAfterWrite(),
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Creates the builder of a Caffeine cache.
+     *
+     * @param spec the bounds of the cache
+     * @return the builder
+     */
+    static Caffeine<Object, Object> builder(CacheProperties.Spec spec) {
+        return Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight().toBytes())
+                .weigher(new CacheWeigher())
+                .expireAfterWrite(spec.getTimeToLive())
+                .recordStats();
+    }
+}
@@ -0,0 +1,61 @@
+package org.johndoe.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounds of the application caches, set with the {@code app.cache} properties, e.g.
+ * {@code app.cache.specs.posts.maximum-weight=64MB}. Caches without a spec of their own use the defaults.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    /**
+     * Spec of the caches not listed in {@link #specs}.
+     */
+    private Spec defaults = new Spec();
+
+    /**
+     * Specs by cache name.
+     */
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    /**
+     * Returns the spec of a cache.
+     *
+     * @param name the cache name
+     * @return the spec of the cache, or the defaults
+     */
+    public Spec specOf(String name) {
+        return specs.getOrDefault(name, defaults);
+    }
+
+    /**
+     * Bounds of one cache.
+     */
+    @Data
+    public static class Spec {
+
+        /**
+         * Estimated heap size of the entries above which the least valuable ones are evicted.
+         */
+        private DataSize maximumWeight = DataSize.ofMegabytes(16);
+
+        /**
+         * Time after which an entry expires, counted from when it was written.
+         */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        /**
+         * Age after which an entry is reloaded in the background on its next synchronized read,
+         * while the current value keeps being served; null to never refresh.
+         */
+        private Duration refreshAfterWrite;
+    }
+}
@@ -0,0 +1,92 @@
+package org.johndoe.kitchensink.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.johndoe.kitchensink.dtos.CommentDto;
+import org.johndoe.kitchensink.dtos.MemberDto;
+import org.johndoe.kitchensink.dtos.PostDto;
+import org.springframework.cache.support.NullValue;
+
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Weighs cache entries by an estimate of the heap they retain, so that caches are bounded in bytes
+ * rather than in entries: a post embedding a page of long comments weighs many times a member.
+ * The estimate walks the DTOs, strings and collections the caches hold and assumes compact
+ * strings and compressed oops; other values get a flat weight.
+ */
+public class CacheWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int STRING_OVERHEAD = 40;
+    private static final int BOXED = 16;
+    private static final int DATE_TIME = 48;
+    private static final int MAP_ENTRY = 32;
+
+    /**
+     * Weight of values of a type the estimate does not know.
+     */
+    static final int DEFAULT_WEIGHT = 256;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = estimate(key) + estimate(value);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes));
+    }
+
+    /**
+     * Estimates the heap retained by a value.
+     *
+     * @param value the value, may be null
+     * @return the estimated size in bytes
+     */
+    static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof NullValue) {
+            return REFERENCE;
+        }
+        if (value instanceof CharSequence text) {
+            return STRING_OVERHEAD + text.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return BOXED;
+        }
+        if (value instanceof Temporal) {
+            return DATE_TIME;
+        }
+        if (value instanceof PostDto post) {
+            return OBJECT_HEADER + 10 * REFERENCE + estimate(post.getId()) + estimate(post.getTitle())
+                    + estimate(post.getContent()) + estimate(post.getMember()) + estimate(post.getCreatedAt())
+                    + estimate(post.getComments()) + estimate(post.getCommentCount())
+                    + estimate(post.getCommentsNextCursor()) + estimate(post.getCommentsVersion()) + estimate(post.getScore());
+        }
+        if (value instanceof CommentDto comment) {
+            return OBJECT_HEADER + 5 * REFERENCE + estimate(comment.getId()) + estimate(comment.getContent())
+                    + estimate(comment.getMember()) + estimate(comment.getPostId()) + estimate(comment.getCreatedAt());
+        }
+        if (value instanceof MemberDto member) {
+            return OBJECT_HEADER + 10 * REFERENCE + estimate(member.getMemberId()) + estimate(member.getUsername())
+                    + estimate(member.getFirstName()) + estimate(member.getLastName()) + estimate(member.getEmail())
+                    + estimate(member.getPhoneNumber()) + estimate(member.getUserRole()) + estimate(member.getUpdatedAt());
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = OBJECT_HEADER + 16 + (long) REFERENCE * collection.size();
+            for (Object element : collection) {
+                bytes += estimate(element);
+            }
+            return bytes;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long bytes = OBJECT_HEADER + 32 + (long) (MAP_ENTRY + REFERENCE) * map.size();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                bytes += estimate(entry.getKey()) + estimate(entry.getValue());
+            }
+            return bytes;
+        }
+        return DEFAULT_WEIGHT;
+    }
+}
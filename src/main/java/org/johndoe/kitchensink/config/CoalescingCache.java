@@ -0,0 +1,321 @@
+package org.johndoe.kitchensink.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Cache decorator that coalesces concurrent misses on the same key into a single load
+ * (single-flight). The first caller to miss runs the loader; callers missing the same key while
+ * that load is in flight wait for its result instead of running their own.
+ * <p>
+ * Coalescing applies to {@link #get(Object, Callable)}, which Spring uses for
+ * {@code @Cacheable(sync = true)}. Every other operation is passed to the delegate unchanged.
+ * <p>
+ * When the delegate is a Caffeine cache with a time to live, entries can also be refreshed after
+ * write: a synchronized read of an entry older than the refresh age returns it as is, and reloads
+ * it in the background with the reader's loader, so hot entries are replaced before they expire
+ * instead of every reader waiting on the load that follows. A load that is still running when its
+ * key is written or evicted does not store its result, so it cannot overwrite a newer value; this
+ * includes entries updated in place with {@link #computeIfPresent(Object, BiFunction)}.
+ */
+public class CoalescingCache implements Cache {
+
+    private final Cache delegate;
+    private final Duration refreshAfterWrite;
+    private final Executor executor;
+
+    /**
+     * Loads currently in flight, by key.
+     */
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * Constructs a new CoalescingCache that never refreshes entries.
+     *
+     * @param delegate the cache holding the values
+     */
+    public CoalescingCache(Cache delegate) {
+        this(delegate, null, Runnable::run);
+    }
+
+    /**
+     * Constructs a new CoalescingCache refreshing entries after write.
+     *
+     * @param delegate          the cache holding the values
+     * @param refreshAfterWrite the age after which entries are refreshed, or null to never refresh
+     * @param executor          the executor running the refreshes
+     */
+    public CoalescingCache(Cache delegate, Duration refreshAfterWrite, Executor executor) {
+        this.delegate = delegate;
+        this.refreshAfterWrite = refreshAfterWrite;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            hits.increment();
+            if (isDueForRefresh(key)) {
+                refresh(key, valueLoader);
+            }
+            return (T) cached.get();
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(key, existing, valueLoader);
+        }
+
+        try {
+            // A load for this key may have completed between the lookup and claiming the key.
+            cached = delegate.get(key);
+            T value;
+            if (cached != null) {
+                hits.increment();
+                value = (T) cached.get();
+            } else {
+                loads.increment();
+                value = valueLoader.call();
+                store(key, load, value);
+            }
+            load.complete(value);
+            return value;
+        } catch (Exception e) {
+            failures.increment();
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * Tells whether an entry is older than the refresh age.
+     *
+     * @param key the key of the entry
+     * @return true if the entry should be refreshed
+     */
+    @SuppressWarnings("unchecked")
+    private boolean isDueForRefresh(Object key) {
+        if (refreshAfterWrite == null
+                || !(delegate.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return false;
+        }
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, ?>) nativeCache).policy().expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(key))
+                .map(age -> age.compareTo(refreshAfterWrite) >= 0)
+                .orElse(false);
+    }
+
+    /**
+     * Reloads an entry in the background, unless a load of the key is already in flight. Readers
+     * keep getting the current value meanwhile; if the reload fails, the entry is kept until it expires.
+     *
+     * @param key         the key of the entry
+     * @param valueLoader the loader of the reader that found the entry due
+     */
+    private void refresh(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> reload = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, reload) != null) {
+            return;
+        }
+        refreshes.increment();
+        try {
+            executor.execute(() -> {
+                try {
+                    Object value = valueLoader.call();
+                    store(key, reload, value);
+                    reload.complete(value);
+                } catch (Exception e) {
+                    failures.increment();
+                    inFlight.remove(key, reload);
+                    reload.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, reload);
+            reload.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stores the result of a load, unless the key was written or evicted while it was in flight.
+     * The load is removed and its result stored atomically, so a write racing with it either
+     * cancels it or lands after its result.
+     *
+     * @param key   the key loaded
+     * @param load  the load
+     * @param value the loaded value
+     */
+    private void store(Object key, CompletableFuture<Object> load, Object value) {
+        inFlight.computeIfPresent(key, (k, current) -> {
+            if (current != load) {
+                return current;
+            }
+            delegate.put(key, value);
+            return null;
+        });
+    }
+
+    /**
+     * Waits for a load started by another caller, failing the same way it did.
+     *
+     * @param key         the key being loaded
+     * @param load        the load in flight
+     * @param valueLoader the loader of the waiting caller, reported on failure
+     * @return the loaded value
+     */
+    private Object await(Object key, CompletableFuture<Object> load, Callable<?> valueLoader) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        inFlight.remove(key);
+        delegate.put(key, value);
+    }
+
+    /**
+     * Updates an entry in place if it is present, atomically with respect to other writers of the
+     * entry. Like {@link #put(Object, Object)}, it cancels any load in flight for the key, so a
+     * refresh started earlier cannot overwrite the update with an older value. A Caffeine cache
+     * re-weighs and restarts the lifetime of an entry updated this way. Delegates that do not
+     * expose their entries as a concurrent map have the entry evicted instead.
+     *
+     * @param key       the key of the entry
+     * @param remapping computes the new value from the cached one, or returns null to evict it
+     */
+    @SuppressWarnings("unchecked")
+    public void computeIfPresent(Object key, BiFunction<Object, Object, Object> remapping) {
+        inFlight.remove(key);
+        Object nativeCache = delegate.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+            ((ConcurrentMap<Object, Object>) caffeineCache.asMap()).computeIfPresent(key, remapping);
+        } else if (nativeCache instanceof ConcurrentMap<?, ?> map) {
+            ((ConcurrentMap<Object, Object>) map).computeIfPresent(key, remapping);
+        } else {
+            delegate.evict(key);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        inFlight.remove(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        inFlight.remove(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        inFlight.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        inFlight.clear();
+        return delegate.invalidate();
+    }
+
+    /**
+     * Returns the statistics of the synchronized lookups of this cache and, when the delegate is a
+     * Caffeine cache, those of all its lookups, its size and its evictions.
+     *
+     * @return hits, loads run, loads coalesced into another one, refreshes, failed loads and loads
+     * in flight, followed by the Caffeine statistics under the {@code cache} key
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hits", hits.sum());
+        statistics.put("loads", loads.sum());
+        statistics.put("coalescedLoads", coalesced.sum());
+        statistics.put("refreshes", refreshes.sum());
+        statistics.put("failedLoads", failures.sum());
+        statistics.put("inFlightLoads", inFlight.size());
+        if (delegate.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            statistics.put("cache", caffeineStatistics(nativeCache));
+        }
+        return statistics;
+    }
+
+    /**
+     * Describes the lookups, size and evictions of a Caffeine cache.
+     *
+     * @param nativeCache the Caffeine cache
+     * @return the statistics keyed by name
+     */
+    private static Map<String, Object> caffeineStatistics(com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+        CacheStats stats = nativeCache.stats();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hitCount", stats.hitCount());
+        statistics.put("missCount", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictionCount", stats.evictionCount());
+        statistics.put("evictionWeight", stats.evictionWeight());
+        statistics.put("estimatedSize", nativeCache.estimatedSize());
+        nativeCache.policy().eviction().ifPresent(eviction -> {
+            eviction.weightedSize().ifPresent(weight -> statistics.put("weightedSize", weight));
+            statistics.put("maximumWeight", eviction.getMaximum());
+        });
+        nativeCache.policy().expireAfterWrite()
+                .ifPresent(expiration -> statistics.put("timeToLive", expiration.getExpiresAfter().toString()));
+        return statistics;
+    }
+}
@@ -0,0 +1,60 @@
+package org.johndoe.kitchensink.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Cache manager that wraps every cache of a delegate manager in a {@link CoalescingCache}.
+ */
+public class CoalescingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final Function<String, Duration> refreshAfterWrite;
+    private final Executor executor;
+
+    private final ConcurrentMap<String, CoalescingCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new CoalescingCacheManager whose caches never refresh entries.
+     *
+     * @param delegate the cache manager creating the underlying caches
+     */
+    public CoalescingCacheManager(CacheManager delegate) {
+        this(delegate, name -> null, Runnable::run);
+    }
+
+    /**
+     * Constructs a new CoalescingCacheManager whose caches refresh entries after write.
+     *
+     * @param delegate          the cache manager creating the underlying caches
+     * @param refreshAfterWrite the refresh age of each cache by name, null for caches never refreshed
+     * @param executor          the executor running the refreshes
+     */
+    public CoalescingCacheManager(CacheManager delegate, Function<String, Duration> refreshAfterWrite, Executor executor) {
+        this.delegate = delegate;
+        this.refreshAfterWrite = refreshAfterWrite;
+        this.executor = executor;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        CoalescingCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        return target == null ? null : caches.computeIfAbsent(name, key -> new CoalescingCache(target, refreshAfterWrite.apply(name), executor));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
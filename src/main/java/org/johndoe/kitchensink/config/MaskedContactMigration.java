@@ -0,0 +1,110 @@
+package org.johndoe.kitchensink.config;
+
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.utils.UtilityMethods;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * One-time migration that stores the masked email and phone number of members written before
+ * masked forms were stored. Only members missing one of them are touched, so running it again is
+ * a no-op. Once it has completed, it is recorded in {@link MigrationMarkers} and skipped on later
+ * startups, as members have been written with their masked forms since.
+ */
+@Component
+public class MaskedContactMigration implements CommandLineRunner {
+
+    /**
+     * Logger for MaskedContactMigration.
+     */
+    private static final Logger log = LoggerFactory.getLogger(MaskedContactMigration.class);
+
+    /**
+     * Number of members updated together.
+     */
+    static final int BATCH_SIZE = 500;
+
+    /**
+     * Name under which completion is recorded.
+     */
+    static final String NAME = "masked-contacts";
+
+    private final MongoTemplate mongoTemplate;
+    private final MigrationMarkers migrationMarkers;
+
+    /**
+     * Flag to indicate if the migration should run on startup.
+     */
+    @Value("${app.migration.masked-contacts:true}")
+    boolean enabled;
+
+    /**
+     * Constructs a new MaskedContactMigration.
+     *
+     * @param mongoTemplate    the mongo template
+     * @param migrationMarkers the markers of completed migrations
+     */
+    public MaskedContactMigration(MongoTemplate mongoTemplate, MigrationMarkers migrationMarkers) {
+        this.mongoTemplate = mongoTemplate;
+        this.migrationMarkers = migrationMarkers;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled || migrationMarkers.isCompleted(NAME)) {
+            return;
+        }
+        long updated = backfill();
+        if (updated > 0) {
+            log.info("Backfilled masked emails and phone numbers on {} members", updated);
+        }
+        migrationMarkers.markCompleted(NAME);
+    }
+
+    /**
+     * Streams every member missing a masked email or phone number and writes both in batches.
+     *
+     * @return the number of members updated
+     */
+    long backfill() {
+        Query missingMasks = new Query(new Criteria().orOperator(where("masked_email").exists(false), where("masked_phone").exists(false)));
+        missingMasks.fields().include("email", "phone_number");
+        missingMasks.cursorBatchSize(BATCH_SIZE);
+
+        long updated = 0;
+        try (Stream<Document> members = mongoTemplate.stream(missingMasks, Document.class, mongoTemplate.getCollectionName(Member.class))) {
+            Iterator<Document> iterator = members.iterator();
+            BulkOperations bulk = null;
+            int queued = 0;
+            while (iterator.hasNext()) {
+                Document member = iterator.next();
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Member.class);
+                }
+                bulk.updateOne(new Query(where("_id").is(member.get("_id"))), new Update()
+                        .set("masked_email", UtilityMethods.maskEmail(member.getString("email")))
+                        .set("masked_phone", UtilityMethods.maskPhone(member.getString("phone_number"))));
+                if (++queued == BATCH_SIZE || !iterator.hasNext()) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = null;
+                    queued = 0;
+                }
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,99 @@
+package org.johndoe.kitchensink.config;
+
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Member;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Startup check for members whose usernames or emails differ only by case. Members are looked up
+ * by username and email through unique indexes under {@link Member#CASE_INSENSITIVE}, which cannot
+ * be built while such duplicates exist, leaving those lookups to scan the collection. Data written
+ * before the indexes existed is not changed: which of the duplicates to keep is an admin's call, so
+ * they are reported instead. Once no duplicates are found, the unique indexes keep new ones out, so
+ * this is recorded in {@link MigrationMarkers} and the check is skipped on later startups.
+ */
+@Component
+public class MemberIdentityCheck implements CommandLineRunner {
+
+    /**
+     * Logger for MemberIdentityCheck.
+     */
+    private static final Logger log = LoggerFactory.getLogger(MemberIdentityCheck.class);
+
+    /**
+     * Name under which completion is recorded.
+     */
+    static final String NAME = "member-identities";
+
+    private final MongoTemplate mongoTemplate;
+    private final MigrationMarkers migrationMarkers;
+
+    /**
+     * Flag to indicate if the check should run on startup.
+     */
+    @Value("${app.migration.member-identities:true}")
+    boolean enabled;
+
+    /**
+     * Constructs a new MemberIdentityCheck.
+     *
+     * @param mongoTemplate    the mongo template
+     * @param migrationMarkers the markers of completed migrations
+     */
+    public MemberIdentityCheck(MongoTemplate mongoTemplate, MigrationMarkers migrationMarkers) {
+        this.mongoTemplate = mongoTemplate;
+        this.migrationMarkers = migrationMarkers;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled || migrationMarkers.isCompleted(NAME)) {
+            return;
+        }
+        boolean resolved = true;
+        for (String field : List.of("username", "email")) {
+            List<List<String>> duplicates = findDuplicates(field);
+            if (!duplicates.isEmpty()) {
+                log.warn("Members share a {} regardless of case, its unique index cannot be built until they are resolved: {}",
+                        field, duplicates);
+                resolved = false;
+            }
+        }
+        if (resolved) {
+            migrationMarkers.markCompleted(NAME);
+        }
+    }
+
+    /**
+     * Groups the values of a member field that are equal under the case-insensitive collation.
+     *
+     * @param field the stored field name
+     * @return the groups of more than one value, each holding the values as stored
+     */
+    List<List<String>> findDuplicates(String field) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(where(field).type(2)),
+                Aggregation.group(field).count().as("count").push(field).as("values"),
+                Aggregation.match(where("count").gt(1))
+        ).withOptions(AggregationOptions.builder().collation(Collation.parse(Member.CASE_INSENSITIVE)).allowDiskUse(true).build());
+
+        List<List<String>> duplicates = new ArrayList<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, Member.class, Document.class)) {
+            duplicates.add(group.getList("values", String.class));
+        }
+        return duplicates;
+    }
+}
@@ -0,0 +1,54 @@
+package org.johndoe.kitchensink.config;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Records the startup migrations that have completed, in the {@value #COLLECTION} collection, so
+ * later startups skip them instead of scanning their collections again. Deleting the marker of a
+ * migration makes it run again on the next startup.
+ */
+@Component
+public class MigrationMarkers {
+
+    /**
+     * Name of the collection holding one marker per completed migration, keyed by its name.
+     */
+    static final String COLLECTION = "migrations";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs a new MigrationMarkers.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public MigrationMarkers(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Tells whether a migration has completed, with a lookup by ID.
+     *
+     * @param migration the name of the migration
+     * @return true if the migration has completed
+     */
+    public boolean isCompleted(String migration) {
+        return mongoTemplate.exists(new Query(where("_id").is(migration)), COLLECTION);
+    }
+
+    /**
+     * Records that a migration has completed.
+     *
+     * @param migration the name of the migration
+     */
+    public void markCompleted(String migration) {
+        mongoTemplate.upsert(new Query(where("_id").is(migration)), new Update().set("completedAt", Instant.now()), COLLECTION);
+    }
+}
@@ -1,17 +1,31 @@
 package org.johndoe.kitchensink.controllers;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.johndoe.kitchensink.dtos.FieldSelection;
+import org.johndoe.kitchensink.dtos.ImportReport;
+import org.johndoe.kitchensink.dtos.IndexReport;
 import org.johndoe.kitchensink.dtos.MemberDto;
 import org.johndoe.kitchensink.services.AdminService;
 import org.johndoe.kitchensink.services.MemberService;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
+import static org.johndoe.kitchensink.utils.UtilityMethods.cursorResponse;
 import static org.johndoe.kitchensink.utils.UtilityMethods.paginateResponse;
 
 @PreAuthorize("hasRole('ADMIN')")
@@ -29,6 +43,12 @@ public class AdminController {
      */
     private final AdminService adminService;
 
+    /**
+     * Time after which an export of the posts is aborted.
+     */
+    @Value("${app.export.posts-timeout:PT1H}")
+    Duration exportTimeout = Duration.ofHours(1);
+
     /**
      * Constructs an AdminController with the given MemberService.
      *
@@ -41,15 +61,29 @@ public class AdminController {
     }
 
     /**
-     * Gets all users.
+     * Gets all users. When {@code cursor} is given (empty for the first page), users are paginated
+     * by seeking on the member ID instead of by offset. When {@code fields} is given, e.g.
+     * {@code fields=memberId,username}, only those fields are fetched and returned. Offset pages
+     * report an estimated total unless {@code includeTotal=true} asks for an exact count.
      *
+     * @param pageInput    the page to fetch
+     * @param cursor       the cursor returned with the previous page, optional
+     * @param fields       comma separated list of the fields to return, optional
+     * @param includeTotal whether to count the users exactly, defaults to false
      * @return a ResponseEntity containing a list of all users
      */
     @GetMapping("/users")
-    public ResponseEntity<Map<String, Object>> getAllUsers(@PageableDefault(size = 10) Pageable pageInput) {
-        Page<MemberDto> page = memberService.findAllMembers(pageInput);
+    public ResponseEntity<Map<String, Object>> getAllUsers(@PageableDefault(size = 10) Pageable pageInput,
+                                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                                           @RequestParam(value = "fields", required = false) String fields,
+                                                           @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        FieldSelection selection = FieldSelection.parse(fields, MemberDto.FIELDS);
+        if (cursor != null) {
+            return ResponseEntity.ok(cursorResponse(memberService.findMembersByCursor(cursor, pageInput.getPageSize(), selection), pageInput.getPageSize()));
+        }
+        Slice<MemberDto> page = memberService.findAllMembers(pageInput, selection);
 
-        Map<String, Object> response = paginateResponse(page);
+        Map<String, Object> response = paginateResponse(page, memberService.countMembers(includeTotal), includeTotal);
 
         return ResponseEntity.ok(response);
     }
@@ -64,6 +98,104 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAnalytics());
     }
 
+    /**
+     * Gets the statistics of the application caches.
+     *
+     * @return a ResponseEntity containing the statistics keyed by cache name
+     */
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        return ResponseEntity.ok(adminService.getCacheStatistics());
+    }
+
+    /**
+     * Gets the state of the in-memory post search index and the heap it is estimated to retain.
+     *
+     * @return a ResponseEntity containing the statistics of the index
+     */
+    @GetMapping("/search-index")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStatistics() {
+        return ResponseEntity.ok(adminService.getSearchIndexStatistics());
+    }
+
+    /**
+     * Gets the state of the member identity filter, including the heap it retains against its
+     * memory budget.
+     *
+     * @return a ResponseEntity containing the statistics of the filter
+     */
+    @GetMapping("/identity-filter")
+    public ResponseEntity<Map<String, Object>> getIdentityFilterStatistics() {
+        return ResponseEntity.ok(adminService.getIdentityFilterStatistics());
+    }
+
+    /**
+     * Rebuilds the member identity filter from the members in the database, e.g. after members
+     * were written outside the application.
+     *
+     * @return a ResponseEntity containing the statistics of the rebuilt filter
+     */
+    @PostMapping("/identity-filter")
+    public ResponseEntity<Map<String, Object>> rebuildIdentityFilter() {
+        return ResponseEntity.ok(adminService.rebuildIdentityFilter());
+    }
+
+    /**
+     * Exports every post with its comments as NDJSON, one post per line. The response is written
+     * as the posts are read, so it starts immediately and never holds the whole export in memory.
+     * The export runs asynchronously under its own timeout, {@code app.export.posts-timeout},
+     * instead of the one of the other asynchronous requests.
+     *
+     * @param response the response to stream the posts to
+     * @return the task streaming the posts
+     */
+    @GetMapping(value = "/export/posts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportPosts(HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("posts.ndjson").build().toString());
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            adminService.exportPosts(response.getOutputStream());
+            return null;
+        });
+    }
+
+    /**
+     * Imports posts and comments in bulk, e.g. when migrating from another forum. The body holds
+     * one record per line, e.g. {@code {"type":"post","id":"p1","username":"john.doe","title":"Hi","content":"..."}}
+     * or {@code {"type":"comment","postId":"p1","username":"jane.doe","content":"..."}}. Records are
+     * written in unordered batches, and those rejected are reported by line number.
+     *
+     * @param body the NDJSON records
+     * @return a ResponseEntity containing the number of records read and written, and the errors
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportReport> importRecords(InputStream body) throws IOException {
+        return ResponseEntity.ok(adminService.importRecords(body));
+    }
+
+    /**
+     * Reports, for every collection, the declared indexes that are missing on the server and the
+     * indexes that are undeclared or unused.
+     *
+     * @return a ResponseEntity containing the report of every collection
+     */
+    @GetMapping("/indexes")
+    public ResponseEntity<List<IndexReport>> getIndexReports() {
+        return ResponseEntity.ok(adminService.getIndexReports());
+    }
+
+    /**
+     * Builds the declared indexes that are missing on the server, e.g. after fixing the data that
+     * made a unique index fail at startup.
+     *
+     * @return a ResponseEntity containing the report of every collection after the builds
+     */
+    @PostMapping("/indexes")
+    public ResponseEntity<List<IndexReport>> ensureIndexes() {
+        return ResponseEntity.ok(adminService.ensureIndexes());
+    }
+
     /**
      * Assigns admin roles to a user.
      *
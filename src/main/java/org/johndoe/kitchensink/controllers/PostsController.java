@@ -2,19 +2,27 @@ package org.johndoe.kitchensink.controllers;
 
 import jakarta.validation.Valid;
 import org.johndoe.kitchensink.dtos.CommentDto;
+import org.johndoe.kitchensink.dtos.FieldSelection;
 import org.johndoe.kitchensink.dtos.PostDto;
 import org.johndoe.kitchensink.security.config.JwtAuthConverter;
+import org.johndoe.kitchensink.services.CommentStreamService;
 import org.johndoe.kitchensink.services.PostService;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
-import static org.johndoe.kitchensink.utils.UtilityMethods.paginateResponse;
+import static org.johndoe.kitchensink.utils.UtilityMethods.*;
 
 @RestController
 @RequestMapping("/api/posts")
@@ -22,14 +30,147 @@ import static org.johndoe.kitchensink.utils.UtilityMethods.paginateResponse;
 public class PostsController {
 
     private final PostService postService;
+    private final CommentStreamService commentStreamService;
 
-    public PostsController(PostService postService) {
+    public PostsController(PostService postService, CommentStreamService commentStreamService) {
         this.postService = postService;
+        this.commentStreamService = commentStreamService;
     }
 
+    /**
+     * Gets a page of posts. When {@code commentPreview} is given, each post embeds only its latest
+     * comments along with the total comment count instead of the whole thread.
+     * When {@code cursor} is given (empty for the first page), posts are paginated by seeking
+     * from the cursor instead of by offset, and the response carries a {@code nextCursor}
+     * in place of the totals.
+     * When {@code fields} is given, e.g. {@code fields=id,title}, only those fields are fetched
+     * and returned. Offset pages report an estimated total unless {@code includeTotal=true}
+     * asks for an exact count.
+     * Responses carry an entity tag derived from the version of the listings and the request;
+     * when {@code If-None-Match} holds it, 304 is returned without building the page.
+     *
+     * @param pageInput      the page to fetch
+     * @param commentPreview the number of latest comments to embed per post, optional
+     * @param cursor         the cursor returned with the previous page, optional
+     * @param fields         comma separated list of the fields to return, optional
+     * @param includeTotal   whether to count the posts exactly, defaults to false
+     * @param ifNoneMatch    the entity tags of the copies held by the client, optional
+     * @return a ResponseEntity containing the paginated posts, or 304 if the client's copy is current
+     */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllPosts(@PageableDefault(size = 10) Pageable pageInput) {
-        return ResponseEntity.ok(paginateResponse(postService.getAllPosts(pageInput)));
+    public ResponseEntity<Map<String, Object>> getAllPosts(@PageableDefault(size = 10) Pageable pageInput,
+                                                           @RequestParam(value = "commentPreview", required = false) Integer commentPreview,
+                                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                                           @RequestParam(value = "fields", required = false) String fields,
+                                                           @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        FieldSelection selection = FieldSelection.parse(fields, PostDto.FIELDS);
+        String entityTag = entityTag(postService.getPostsVersion(), pageInput, commentPreview, cursor, selection, includeTotal);
+        if (matchesEntityTag(ifNoneMatch, entityTag)) {
+            return notModified(entityTag);
+        }
+        if (cursor != null) {
+            return okWithEntityTag(entityTag).body(cursorResponse(postService.getPostsByCursor(cursor, pageInput.getPageSize(), selection), pageInput.getPageSize()));
+        }
+        Slice<PostDto> page = commentPreview == null
+                ? postService.getAllPosts(pageInput, selection)
+                : postService.getFeed(pageInput, commentPreview, selection);
+        return okWithEntityTag(entityTag).body(paginateResponse(page, postService.countPosts(includeTotal), includeTotal));
+    }
+
+    /**
+     * Searches the title and content of the posts, most relevant first. Matches in the title
+     * weigh more than matches in the content, and each post carries its relevance {@code score}.
+     * Pass the {@code nextCursor} of a page to fetch the following one.
+     *
+     * @param query     the search terms; phrases may be quoted and terms excluded with a leading {@code -}
+     * @param pageInput the page size
+     * @param cursor    the cursor returned with the previous page, optional
+     * @return a ResponseEntity containing the matching posts and the cursor of the next page
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchPosts(@RequestParam("q") String query,
+                                                           @PageableDefault(size = 10) Pageable pageInput,
+                                                           @RequestParam(value = "cursor", required = false) String cursor) {
+        int size = Math.min(pageInput.getPageSize(), PostService.MAX_SEARCH_PAGE_SIZE);
+        return ResponseEntity.ok(cursorResponse(postService.searchPosts(query, cursor, size), size));
+    }
+
+    /**
+     * Suggests posts for a query as it is typed, from the in-memory search index. The last word of
+     * the query is matched as a prefix unless the query ends with a space.
+     *
+     * @param query the query typed so far
+     * @param limit the maximum number of suggestions, defaults to 10
+     * @return a ResponseEntity containing the ID, title and score of the suggested posts, or 404 if
+     * the in-memory index is disabled or still being built
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<PostDto>> suggestPosts(@RequestParam("q") String query,
+                                                      @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.of(postService.suggestPosts(query, limit));
+    }
+
+    /**
+     * Gets a post with the first page of its comments. The response carries an entity tag derived
+     * from the post's comments version; when {@code If-None-Match} holds it, 304 is returned
+     * after reading only that version. A cached copy older than that version is rebuilt.
+     *
+     * @param postId      the ID of the post
+     * @param ifNoneMatch the entity tags of the copies held by the client, optional
+     * @return a ResponseEntity containing the post, 304 if the client's copy is current, or 404 if it does not exist
+     */
+    @GetMapping("/{postId}")
+    public ResponseEntity<PostDto> getPost(@PathVariable("postId") String postId,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<Long> version = postService.findCommentsVersion(postId);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (matchesEntityTag(ifNoneMatch, entityTag(postId, version.get()))) {
+            return notModified(entityTag(postId, version.get()));
+        }
+        Optional<PostDto> post = postService.getPostById(postId);
+        if (post.isPresent() && (post.get().getCommentsVersion() == null || post.get().getCommentsVersion() < version.get())) {
+            postService.evictCachedPost(postId);
+            post = postService.getPostById(postId);
+        }
+        return post.map(current -> okWithEntityTag(entityTag(current.getId(), current.getCommentsVersion())).body(current))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gets a page of a post's comments, newest first. Pass the {@code nextCursor} of a page,
+     * or the {@code commentsNextCursor} of the post, to fetch the following one.
+     *
+     * @param postId    the ID of the post
+     * @param pageInput the page size
+     * @param cursor    the cursor returned with the previous page, optional
+     * @return a ResponseEntity containing the comments and the cursor of the next page
+     */
+    @GetMapping("/{postId}/comments")
+    public ResponseEntity<Map<String, Object>> getComments(@PathVariable("postId") String postId,
+                                                           @PageableDefault(size = PostService.COMMENT_PAGE_SIZE) Pageable pageInput,
+                                                           @RequestParam(value = "cursor", required = false) String cursor) {
+        int size = Math.min(pageInput.getPageSize(), PostService.MAX_COMMENT_PAGE_SIZE);
+        return ResponseEntity.ok(cursorResponse(postService.getComments(postId, cursor, size), size));
+    }
+
+    /**
+     * Streams the comments added to a post from now on, as Server-Sent Events named {@code comment}
+     * carrying the comment and its ID. Clients load the thread once and then only receive new
+     * comments. A heartbeat comment is sent periodically, and clients that fall behind are
+     * disconnected and expected to reconnect and reload the thread.
+     *
+     * @param postId the ID of the post
+     * @return a ResponseEntity containing the event stream, or 404 if the post does not exist
+     */
+    @GetMapping(value = "/{postId}/comments/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamComments(@PathVariable("postId") String postId) {
+        if (postService.findCommentsVersion(postId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(commentStreamService.subscribe(postId));
     }
 
     @PostMapping
@@ -6,11 +6,15 @@ import org.johndoe.kitchensink.dtos.MemberDto;
 import org.johndoe.kitchensink.security.config.JwtAuthConverter;
 import org.johndoe.kitchensink.services.KeycloakAuthService;
 import org.johndoe.kitchensink.services.MemberService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.util.Optional;
+
+import static org.johndoe.kitchensink.utils.UtilityMethods.*;
 
 /**
  * Controller class for managing the dashboard.
@@ -32,14 +36,25 @@ public class ProfileController {
     private final KeycloakAuthService keycloakAuthService;
 
     /**
-     * Gets the profile of a user.
+     * Gets the profile of a user. The response carries an entity tag derived from the member's
+     * last update; when {@code If-None-Match} holds it, 304 is returned after reading only that date.
      *
-     * @param id the user ID
-     * @return the user profile
+     * @param principal   the authenticated user
+     * @param ifNoneMatch the entity tags of the copies held by the client, optional
+     * @return the user profile, or 304 if the client's copy is current
      */
     @GetMapping("/profile")
-    public ResponseEntity<MemberDto> getUserProfile(Principal principal) {
-        return ResponseEntity.ok(service.findMemberByName(JwtAuthConverter.getUsernameFromPrincipal(principal)));
+    public ResponseEntity<MemberDto> getUserProfile(Principal principal,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String username = JwtAuthConverter.getUsernameFromPrincipal(principal);
+        if (ifNoneMatch != null) {
+            Optional<String> entityTag = service.findMemberUpdatedAt(username).map(updatedAt -> entityTag(username, updatedAt));
+            if (entityTag.isPresent() && matchesEntityTag(ifNoneMatch, entityTag.get())) {
+                return notModified(entityTag.get());
+            }
+        }
+        MemberDto profile = service.findMemberByName(username);
+        return okWithEntityTag(entityTag(profile.getUsername(), profile.getUpdatedAt())).body(profile);
     }
 
     /**
@@ -0,0 +1,107 @@
+package org.johndoe.kitchensink.documents;
+
+import lombok.Data;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * AuthorSnapshot is a denormalized copy of the member who wrote a post or comment.
+ * It is embedded in the authored document so reads never have to resolve the member reference.
+ * Contact details are stored already masked, as they are only ever shown to other users.
+ */
+@Data
+public class AuthorSnapshot {
+
+    /**
+     * The unique identifier of the member.
+     */
+    @Field("member_id")
+    private Long memberId;
+
+    /**
+     * The username of the member.
+     */
+    @Field("username")
+    private String username;
+
+    /**
+     * The first name of the member.
+     */
+    @Field("first_name")
+    private String firstName;
+
+    /**
+     * The last name of the member.
+     */
+    @Field("last_name")
+    private String lastName;
+
+    /**
+     * The full name of the member, as displayed next to their posts, or their username if they
+     * have no name.
+     */
+    @Field("display_name")
+    private String displayName;
+
+    /**
+     * The masked email address of the member.
+     */
+    @Field("masked_email")
+    private String maskedEmail;
+
+    /**
+     * The masked phone number of the member.
+     */
+    @Field("masked_phone")
+    private String maskedPhone;
+
+    /**
+     * The role of the member.
+     */
+    @Field("user_role")
+    private String userRole;
+
+    /**
+     * Default constructor for AuthorSnapshot.
+     */
+    public AuthorSnapshot() {
+    }
+
+    /**
+     * Takes a snapshot of the given member.
+     *
+     * @param member the member
+     * @return the snapshot, or null if member is null
+     */
+    public static AuthorSnapshot of(Member member) {
+        if (member == null) {
+            return null;
+        }
+        AuthorSnapshot snapshot = new AuthorSnapshot();
+        snapshot.setMemberId(member.getMemberId());
+        snapshot.setUsername(member.getUsername());
+        snapshot.setFirstName(member.getFirstName());
+        snapshot.setLastName(member.getLastName());
+        snapshot.setDisplayName(displayName(member));
+        snapshot.setMaskedEmail(member.getMaskedEmail());
+        snapshot.setMaskedPhone(member.getMaskedPhone());
+        snapshot.setUserRole(member.getUserRole());
+        return snapshot;
+    }
+
+    /**
+     * Joins the non-blank parts of the name of a member, falling back to their username.
+     *
+     * @param member the member
+     * @return the name to display
+     */
+    private static String displayName(Member member) {
+        String name = Stream.of(member.getFirstName(), member.getLastName())
+                .filter(part -> part != null && !part.isBlank())
+                .map(String::trim)
+                .collect(Collectors.joining(" "));
+        return name.isEmpty() ? member.getUsername() : name;
+    }
+}
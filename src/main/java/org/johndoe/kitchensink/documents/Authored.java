@@ -0,0 +1,36 @@
+package org.johndoe.kitchensink.documents;
+
+/**
+ * Authored is implemented by documents written by a member, which reference their author
+ * and may carry an embedded snapshot of them.
+ */
+public interface Authored {
+
+    /**
+     * Returns the referenced member who wrote the document.
+     *
+     * @return the member, possibly an unresolved lazy reference
+     */
+    Member getMember();
+
+    /**
+     * Replaces the referenced member who wrote the document.
+     *
+     * @param member the member
+     */
+    void setMember(Member member);
+
+    /**
+     * Returns the embedded snapshot of the author.
+     *
+     * @return the snapshot, or null for documents written before snapshots existed
+     */
+    AuthorSnapshot getAuthor();
+
+    /**
+     * Replaces the embedded snapshot of the author.
+     *
+     * @param author the snapshot
+     */
+    void setAuthor(AuthorSnapshot author);
+}
@@ -2,7 +2,10 @@ package org.johndoe.kitchensink.documents;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -12,8 +15,14 @@ import org.springframework.data.mongodb.core.mapping.Field;
  */
 @Data
 @Document(collection = "comments")
+@CompoundIndexes({
+        @CompoundIndex(name = "post_thread_idx", def = "{'postId': 1, 'created_at': -1, '_id': -1}"),
+        @CompoundIndex(name = "updated_at_idx", def = "{'updated_at': -1}"),
+        @CompoundIndex(name = "member_idx", def = "{'member': 1}"),
+        @CompoundIndex(name = "author_idx", def = "{'author.memberId': 1}")
+})
 @EqualsAndHashCode(callSuper = false)
-public class Comment extends BaseDocument {
+public class Comment extends BaseDocument implements Authored {
 
     /**
      * The unique identifier for the comment.
@@ -22,12 +31,21 @@ public class Comment extends BaseDocument {
     String commentId;
 
     /**
-     * The member who created the comment.
+     * The member who created the comment. Resolved lazily, as reads render the embedded
+     * {@link #author} snapshot instead; the reference is kept for ownership checks.
      */
-    @DBRef
+    @DBRef(lazy = true)
     @Field("member")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Member member;
 
+    /**
+     * Snapshot of the member who created the comment, taken when it was written.
+     */
+    @Field("author")
+    private AuthorSnapshot author;
+
     /**
      * The ID of the post to which this comment belongs.
      */
@@ -57,6 +75,7 @@ public class Comment extends BaseDocument {
     public Comment(String commentId, Member member, String postId, String content) {
         this.commentId = commentId;
         this.member = member;
+        this.author = AuthorSnapshot.of(member);
         this.postId = postId;
         this.content = content;
     }
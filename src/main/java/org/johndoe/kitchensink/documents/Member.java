@@ -5,7 +5,9 @@ package org.johndoe.kitchensink.documents;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.johndoe.kitchensink.utils.UtilityMethods;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -17,16 +19,38 @@ import org.springframework.data.mongodb.core.mapping.Field;
 @EqualsAndHashCode(callSuper = false)
 public class Member extends BaseDocument {
 
+    /**
+     * Collation comparing strings regardless of case, shared by the username, email and phone
+     * number indexes and by the queries they serve. Sharing it lets a single {@code $or} over
+     * these fields use all three indexes; phone numbers are digits, which it leaves unchanged.
+     */
+    public static final String CASE_INSENSITIVE = "{ 'locale': 'en', 'strength': 2 }";
+
+    /**
+     * Name of the unique member ID index, which duplicate key errors on member IDs mention.
+     */
+    public static final String MEMBER_ID_INDEX = "member_id_idx";
+
+    /**
+     * Names of the unique username, email and phone number indexes, which duplicate key errors on
+     * these fields mention.
+     */
+    public static final String USERNAME_INDEX = "username_idx";
+    public static final String EMAIL_INDEX = "email_idx";
+    public static final String PHONE_NUMBER_INDEX = "phone_number_ci_idx";
+
     /**
      * The unique identifier for the member.
      */
     @Field("member_id")
+    @Indexed(name = MEMBER_ID_INDEX, unique = true)
     Long memberId;
 
     /**
-     * The username of the member.
+     * The username of the member, unique regardless of case.
      */
     @Field("username")
+    @Indexed(name = USERNAME_INDEX, unique = true, collation = Member.CASE_INSENSITIVE)
     String username;
 
     /**
@@ -42,20 +66,37 @@ public class Member extends BaseDocument {
     String lastName;
 
     /**
-     * The email address of the member.
+     * The email address of the member, unique regardless of case.
      */
     @Field("email")
+    @Indexed(name = EMAIL_INDEX, unique = true, collation = Member.CASE_INSENSITIVE)
     String email;
 
     /**
-     * The phone number of the member.
+     * The phone number of the member, unique among the members that have one.
      */
     @Field("phone_number")
+    @Indexed(name = PHONE_NUMBER_INDEX, unique = true, partialFilter = "{ 'phone_number': { '$type': 'string' } }",
+            collation = Member.CASE_INSENSITIVE)
     String phoneNumber;
 
     @Field("user_role")
     String userRole;
 
+    /**
+     * The email address of the member as shown to other members, masked whenever the email is set
+     * so that rendering the member as an author never masks it again.
+     */
+    @Field("masked_email")
+    String maskedEmail;
+
+    /**
+     * The phone number of the member as shown to other members, masked whenever the phone number
+     * is set.
+     */
+    @Field("masked_phone")
+    String maskedPhone;
+
     /**
      * The MongoDB document ID.
      */
@@ -84,8 +125,48 @@ public class Member extends BaseDocument {
         this.username = username;
         this.firstName = firstName;
         this.lastName = lastName;
+        this.userRole = userRole;
+        setEmail(email);
+        setPhoneNumber(phoneNumber);
+    }
+
+    /**
+     * Sets the email address of the member, along with its masked form.
+     *
+     * @param email the email address
+     */
+    public void setEmail(String email) {
         this.email = email;
+        this.maskedEmail = UtilityMethods.maskEmail(email);
+    }
+
+    /**
+     * Sets the phone number of the member, along with its masked form.
+     *
+     * @param phoneNumber the phone number
+     */
+    public void setPhoneNumber(String phoneNumber) {
         this.phoneNumber = phoneNumber;
-        this.userRole = userRole;
+        this.maskedPhone = UtilityMethods.maskPhone(phoneNumber);
+    }
+
+    /**
+     * Gets the masked email address of the member, masking it on the fly for members written
+     * before masked forms were stored.
+     *
+     * @return the masked email address
+     */
+    public String getMaskedEmail() {
+        return maskedEmail != null ? maskedEmail : UtilityMethods.maskEmail(email);
+    }
+
+    /**
+     * Gets the masked phone number of the member, masking it on the fly for members written
+     * before masked forms were stored.
+     *
+     * @return the masked phone number
+     */
+    public String getMaskedPhone() {
+        return maskedPhone != null ? maskedPhone : UtilityMethods.maskPhone(phoneNumber);
     }
 }
\ No newline at end of file
@@ -2,10 +2,17 @@ package org.johndoe.kitchensink.documents;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import java.util.List;
 
@@ -14,8 +21,14 @@ import java.util.List;
  */
 @Data
 @Document(collection = "posts")
+@CompoundIndexes({
+        @CompoundIndex(name = "created_at_idx", def = "{'created_at': -1, '_id': -1}"),
+        @CompoundIndex(name = "updated_at_idx", def = "{'updated_at': -1}"),
+        @CompoundIndex(name = "member_created_at_idx", def = "{'member': 1, 'created_at': -1}"),
+        @CompoundIndex(name = "author_idx", def = "{'author.memberId': 1}")
+})
 @EqualsAndHashCode(callSuper = false)
-public class Post extends BaseDocument {
+public class Post extends BaseDocument implements Authored {
 
     /**
      * The unique identifier for the post.
@@ -24,22 +37,33 @@ public class Post extends BaseDocument {
     String postId;
 
     /**
-     * The member who created the post.
+     * The member who created the post. Resolved lazily, as reads render the embedded
+     * {@link #author} snapshot instead; the reference is kept for ownership checks.
      */
-    @DBRef
+    @DBRef(lazy = true)
     @Field("member")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Member member;
 
     /**
-     * The title of the post.
+     * Snapshot of the member who created the post, taken when it was written.
+     */
+    @Field("author")
+    private AuthorSnapshot author;
+
+    /**
+     * The title of the post. Part of the text index, where a match weighs more than in the content.
      */
     @Field("title")
+    @TextIndexed(weight = 3)
     private String title;
 
     /**
-     * The content of the post.
+     * The content of the post. Part of the text index.
      */
     @Field("content")
+    @TextIndexed
     private String content;
 
     /**
@@ -48,6 +72,29 @@ public class Post extends BaseDocument {
     @Field("commentIds")
     private List<String> commentIds; // Store only comment IDs
 
+    /**
+     * The number of comments on the post, recounted on the server as comments are added and
+     * removed, and periodically reconciled against the comments collection.
+     */
+    @Indexed(name = "commentCount_idx", direction = IndexDirection.DESCENDING)
+    @Field("commentCount")
+    private long commentCount;
+
+    /**
+     * Incremented together with {@link #commentCount} on every change to the comments of the post,
+     * and whenever the author snapshot of the post or of one of its comments is re-synced, so
+     * cached copies can tell whether they missed a change.
+     */
+    @Field("commentsVersion")
+    private long commentsVersion;
+
+    /**
+     * Relevance of the post to a text search, set only on the results of one. Never stored.
+     */
+    @TextScore
+    @EqualsAndHashCode.Exclude
+    private Double score;
+
     /**
      * Default constructor for Post.
      */
@@ -66,6 +113,7 @@ public class Post extends BaseDocument {
     public Post(String postId, Member member, String title, String content, List<String> commentIds) {
         this.postId = postId;
         this.member = member;
+        this.author = AuthorSnapshot.of(member);
         this.title = title;
         this.content = content;
         this.commentIds = commentIds;
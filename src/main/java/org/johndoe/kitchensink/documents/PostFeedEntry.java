@@ -0,0 +1,35 @@
+package org.johndoe.kitchensink.documents;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * PostFeedEntry is the read model produced by the feed aggregation.
+ * It is never persisted; it pairs a post with a bounded preview of its latest comments
+ * and the total number of comments on the post.
+ */
+@Data
+public class PostFeedEntry {
+
+    /**
+     * The post itself.
+     */
+    private Post post;
+
+    /**
+     * The latest comments on the post, newest first, capped at the requested preview size.
+     */
+    private List<Comment> latestComments;
+
+    /**
+     * The total number of comments on the post.
+     */
+    private long commentCount;
+
+    /**
+     * Default constructor for PostFeedEntry.
+     */
+    public PostFeedEntry() {
+    }
+}
@@ -50,13 +50,13 @@ public class CommentDto {
             if (comment == null) {
                 return null;
             }
-            return new CommentDto(
-                    comment.getId(),
-                    comment.getContent(),
-                    comment.getMember(),
-                    comment.getPostId(), // Fetch only post ID
-                    comment.getCreatedAt()
-            );
+            CommentDto dto = new CommentDto();
+            dto.setId(comment.getId());
+            dto.setContent(comment.getContent());
+            dto.setMember(MemberDto.Mapper.fromAuthor(comment.getAuthor(), comment.getMember()));
+            dto.setPostId(comment.getPostId()); // Fetch only post ID
+            dto.setCreatedAt(comment.getCreatedAt());
+            return dto;
         }
 
         public static CommentDto fromEntity(String id, String content, LocalDateTime createdAt) {
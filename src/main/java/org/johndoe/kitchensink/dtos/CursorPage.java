@@ -0,0 +1,22 @@
+package org.johndoe.kitchensink.dtos;
+
+import java.util.List;
+
+/**
+ * CursorPage is a record that holds one page of a keyset (cursor) paginated listing.
+ *
+ * @param content    the items on this page
+ * @param nextCursor the opaque cursor pointing after the last item, or null if this is the last page
+ * @param <T>        the type of the items
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+
+    /**
+     * Tells whether there are no more items after this page.
+     *
+     * @return true if this is the last page
+     */
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
@@ -0,0 +1,77 @@
+package org.johndoe.kitchensink.dtos;
+
+import org.johndoe.kitchensink.exceptions.ValidationException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * FieldSelection is a record that holds the response fields requested through a {@code fields}
+ * query parameter (a sparse fieldset).
+ *
+ * @param fields the selected fields, or null when every field is selected
+ */
+public record FieldSelection(Set<String> fields) {
+
+    /**
+     * Selection of every field, used when the request does not restrict them.
+     */
+    public static final FieldSelection ALL = new FieldSelection(null);
+
+    /**
+     * Parses a comma separated list of field names against the fields a DTO exposes.
+     *
+     * @param fields  the requested fields, e.g. {@code "id,title"}; null or blank selects every field
+     * @param allowed the fields the DTO exposes
+     * @return the selection
+     * @throws ValidationException if a requested field is not exposed by the DTO
+     */
+    public static FieldSelection parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new ValidationException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? ALL : new FieldSelection(Collections.unmodifiableSet(selected));
+    }
+
+    /**
+     * Creates a selection of the given fields.
+     *
+     * @param fields the selected fields
+     * @return the selection
+     */
+    public static FieldSelection of(String... fields) {
+        return new FieldSelection(Set.copyOf(Arrays.asList(fields)));
+    }
+
+    /**
+     * Tells whether every field is selected.
+     *
+     * @return true if the selection does not restrict the fields
+     */
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    /**
+     * Tells whether a field is selected.
+     *
+     * @param field the field name
+     * @return true if the field should be populated
+     */
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+}
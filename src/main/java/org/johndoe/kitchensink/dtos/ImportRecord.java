@@ -0,0 +1,29 @@
+package org.johndoe.kitchensink.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * ImportRecord is a record that holds one line of a bulk import: a post, or a comment on a post.
+ *
+ * @param type      {@code post} or {@code comment}
+ * @param id        the ID to store the document under, optional; posts given an ID can be
+ *                  commented on further down the same import
+ * @param postId    the ID of the post a comment belongs to; ignored for posts
+ * @param username  the username of the author
+ * @param title     the title of a post; ignored for comments
+ * @param content   the content
+ * @param createdAt the original creation date, optional; defaults to the time of the import
+ */
+public record ImportRecord(String type, String id, String postId, String username, String title,
+                           String content, LocalDateTime createdAt) {
+
+    /**
+     * Type of the records holding posts.
+     */
+    public static final String POST = "post";
+
+    /**
+     * Type of the records holding comments.
+     */
+    public static final String COMMENT = "comment";
+}
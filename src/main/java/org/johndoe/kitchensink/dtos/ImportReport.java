@@ -0,0 +1,23 @@
+package org.johndoe.kitchensink.dtos;
+
+import java.util.List;
+
+/**
+ * ImportReport is a record that summarizes a bulk import.
+ *
+ * @param received the number of records read
+ * @param inserted the number of documents written
+ * @param failed   the number of records rejected or not written
+ * @param errors   the first errors, by line number; at most a bounded number are reported
+ */
+public record ImportReport(long received, long inserted, long failed, List<RecordError> errors) {
+
+    /**
+     * Error of a single record.
+     *
+     * @param line    the line number of the record, starting at 1
+     * @param message the reason the record was not written
+     */
+    public record RecordError(long line, String message) {
+    }
+}
@@ -0,0 +1,18 @@
+package org.johndoe.kitchensink.dtos;
+
+import java.util.List;
+
+/**
+ * IndexReport is a record that compares the indexes declared on the documents of a collection
+ * with the indexes the server holds and uses.
+ *
+ * @param collection the collection name
+ * @param declared   the names of the indexes declared on the document
+ * @param missing    declared indexes the server does not hold, e.g. because building them failed
+ * @param undeclared indexes the server holds that no document declares, other than the {@code _id} index
+ * @param unused     indexes the server holds that have not served any operation since the server
+ *                   started or the index was built
+ */
+public record IndexReport(String collection, List<String> declared, List<String> missing,
+                          List<String> undeclared, List<String> unused) {
+}
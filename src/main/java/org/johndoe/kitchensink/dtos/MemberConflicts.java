@@ -0,0 +1,26 @@
+package org.johndoe.kitchensink.dtos;
+
+/**
+ * Tells which identity fields of a prospective member are already held by other members,
+ * compared regardless of case.
+ *
+ * @param username    whether the username is taken
+ * @param email       whether the email is taken
+ * @param phoneNumber whether the phone number is taken
+ */
+public record MemberConflicts(boolean username, boolean email, boolean phoneNumber) {
+
+    /**
+     * No field is taken.
+     */
+    public static final MemberConflicts NONE = new MemberConflicts(false, false, false);
+
+    /**
+     * Tells whether any field is taken.
+     *
+     * @return true if at least one field is taken
+     */
+    public boolean any() {
+        return username || email || phoneNumber;
+    }
+}
@@ -1,5 +1,6 @@
 package org.johndoe.kitchensink.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -7,10 +8,13 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.johndoe.kitchensink.annotations.PasswordRules;
-import org.johndoe.kitchensink.annotations.UniqueInDatabase;
-import org.johndoe.kitchensink.annotations.UniqueUsername;
+import org.johndoe.kitchensink.annotations.UniqueMember;
+import org.johndoe.kitchensink.documents.AuthorSnapshot;
 import org.johndoe.kitchensink.documents.Member;
-import org.johndoe.kitchensink.utils.UtilityMethods;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Data Transfer Object for Member.
@@ -18,8 +22,15 @@ import org.johndoe.kitchensink.utils.UtilityMethods;
 @Data
 @NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@UniqueMember
 public class MemberDto {
 
+    /**
+     * Names of the fields that can be requested through a sparse fieldset. Each one is backed by
+     * the Member property of the same name.
+     */
+    public static final Set<String> FIELDS = Set.of("memberId", "username", "firstName", "lastName", "email", "phoneNumber", "userRole");
+
     /**
      * The unique identifier for the member.
      */
@@ -31,7 +42,6 @@ public class MemberDto {
      */
     @NotBlank(message = "Username is mandatory")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
-    @UniqueUsername
     private String username;
 
     @NotBlank(message = "First Name is mandatory")
@@ -49,7 +59,6 @@ public class MemberDto {
             message = "Email should be valid"
     )
     @NotBlank(message = "Email is mandatory")
-    @UniqueInDatabase
     private String email;
 
     /**
@@ -61,7 +70,6 @@ public class MemberDto {
             regexp = "^[6789]\\d{9}$",
             message = "Phone number must be valid 10 digit indian number without country code"
     )
-    @UniqueInDatabase
     private String phoneNumber;
 
     /**
@@ -78,6 +86,13 @@ public class MemberDto {
 
     private String userRole;
 
+    /**
+     * The date and time the member was last updated, from which the entity tag of the profile is
+     * derived. Not serialized.
+     */
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+
     /**
      * Custom constructor for MemberDto
      */
@@ -188,25 +203,102 @@ public class MemberDto {
             return fromEntity(member, false);
         }
 
-        public static MemberDto fromEntity(Member member , boolean isMasked) {
+        /**
+         * Converts the author of a post or comment to a masked MemberDto. The embedded snapshot is
+         * preferred; the member reference is only resolved for documents written before snapshots existed.
+         *
+         * @param author the embedded author snapshot, may be null
+         * @param member the referenced member, used when there is no snapshot
+         * @return the converted MemberDto
+         */
+        public static MemberDto fromAuthor(AuthorSnapshot author, Member member) {
+            if (author == null) {
+                return fromEntity(member, true);
+            }
+            return new MemberDto(
+                    author.getMemberId(),
+                    author.getUsername(),
+                    author.getFirstName(),
+                    author.getLastName(),
+                    author.getMaskedEmail(),
+                    author.getMaskedPhone(),
+                    author.getUserRole()
+            );
+        }
+
+        /**
+         * Converts a Member entity to a MemberDto holding only the selected fields; the others are
+         * left null so they are neither mapped nor serialized.
+         *
+         * @param member the Member entity to convert
+         * @param fields the selected fields
+         * @return the converted MemberDto
+         */
+        public static MemberDto fromEntity(Member member, FieldSelection fields) {
             if (member == null) {
                 return null;
             }
-
-            if(isMasked) {
-                member.setEmail(UtilityMethods.maskEmail(member.getEmail()));
-                member.setPhoneNumber(UtilityMethods.maskPhone(member.getPhoneNumber()));
+            if (fields.isAll()) {
+                return fromEntity(member);
             }
+            MemberDto dto = new MemberDto();
+            if (fields.includes("memberId")) {
+                dto.setMemberId(member.getMemberId());
+            }
+            if (fields.includes("username")) {
+                dto.setUsername(member.getUsername());
+            }
+            if (fields.includes("firstName")) {
+                dto.setFirstName(member.getFirstName());
+            }
+            if (fields.includes("lastName")) {
+                dto.setLastName(member.getLastName());
+            }
+            if (fields.includes("email")) {
+                dto.setEmail(member.getEmail());
+            }
+            if (fields.includes("phoneNumber")) {
+                dto.setPhoneNumber(member.getPhoneNumber());
+            }
+            if (fields.includes("userRole")) {
+                dto.setUserRole(member.getUserRole());
+            }
+            return dto;
+        }
 
-            return new MemberDto(
+        /**
+         * Lists the document properties to project for the selected fields.
+         *
+         * @param fields the selected fields
+         * @return the properties to fetch, or null when the whole document is needed
+         */
+        public static List<String> toEntityProperties(FieldSelection fields) {
+            return fields.isAll() ? null : List.copyOf(fields.fields());
+        }
+
+        /**
+         * Converts a Member entity to a MemberDto, optionally showing its masked email and phone
+         * number. The entity is left untouched, so a cached or shared entity can be mapped safely.
+         *
+         * @param member   the Member entity to convert
+         * @param isMasked whether to show the masked email and phone number
+         * @return the converted MemberDto
+         */
+        public static MemberDto fromEntity(Member member, boolean isMasked) {
+            if (member == null) {
+                return null;
+            }
+            MemberDto dto = new MemberDto(
                     member.getMemberId(),
                     member.getUsername(),
                     member.getFirstName(),
                     member.getLastName(),
-                    member.getEmail(),
-                    member.getPhoneNumber(),
+                    isMasked ? member.getMaskedEmail() : member.getEmail(),
+                    isMasked ? member.getMaskedPhone() : member.getPhoneNumber(),
                     member.getUserRole()
             );
+            dto.setUpdatedAt(member.getUpdatedAt());
+            return dto;
         }
     }
 }
@@ -1,5 +1,6 @@
 package org.johndoe.kitchensink.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -7,9 +8,14 @@ import lombok.NoArgsConstructor;
 import org.johndoe.kitchensink.documents.Comment;
 import org.johndoe.kitchensink.documents.Member;
 import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.documents.PostFeedEntry;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +26,24 @@ import java.util.stream.Collectors;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class PostDto {
 
+    /**
+     * Fields that can be requested through a sparse fieldset, mapped to the document
+     * properties needed to populate them.
+     */
+    private static final Map<String, List<String>> FIELD_PROPERTIES = Map.of(
+            "id", List.of(),
+            "title", List.of("title"),
+            "content", List.of("content"),
+            "member", List.of("author", "member"),
+            "createdAt", List.of("createdAt"),
+            "comments", List.of(),
+            "commentCount", List.of("commentCount"));
+
+    /**
+     * Names of the fields that can be requested through a sparse fieldset.
+     */
+    public static final Set<String> FIELDS = FIELD_PROPERTIES.keySet();
+
     private String id;
 
     @NotBlank(message = "Title cannot be empty")
@@ -31,6 +55,29 @@ public class PostDto {
     private LocalDateTime createdAt;
     private List<CommentDto> comments; // Now storing full CommentDto instead of IDs
 
+    /**
+     * Total number of comments on the post, which {@link #comments} may hold only a subset of.
+     */
+    private Long commentCount;
+
+    /**
+     * Cursor of the next page of {@link #comments}, served by the post's comment thread
+     * endpoint. Null when the thread has no further comments.
+     */
+    private String commentsNextCursor;
+
+    /**
+     * Comments version of the post this DTO was built from, used to keep cached copies in step
+     * with new comments. Not serialized.
+     */
+    @JsonIgnore
+    private Long commentsVersion;
+
+    /**
+     * Relevance of the post to the text search that returned it; absent outside search results.
+     */
+    private Double score;
+
     public PostDto(String id, String title, String content, Member member, LocalDateTime createdAt, List<CommentDto> comments) {
         this.id = id;
         this.title = title;
@@ -57,14 +104,89 @@ public class PostDto {
                 return null;
             }
             List<CommentDto> commentDtos = comments.stream().map(CommentDto.Mapper::fromEntity).collect(Collectors.toList());
-            return new PostDto(
-                    post.getId(),
-                    post.getTitle(),
-                    post.getContent(),
-                    post.getMember(),
-                    post.getCreatedAt(),
-                    commentDtos
-            );
+            return fromEntityWithComments(post, commentDtos);
+        }
+
+        public static PostDto fromEntityWithComments(Post post, List<CommentDto> comments) {
+            return fromEntityWithComments(post, comments, FieldSelection.ALL);
+        }
+
+        /**
+         * Converts a Post entity to a PostDto holding only the selected fields; the others are left
+         * null so they are neither mapped nor serialized.
+         *
+         * @param post     the Post entity to convert
+         * @param comments the comments to embed, ignored unless selected
+         * @param fields   the selected fields
+         * @return the converted PostDto
+         */
+        public static PostDto fromEntityWithComments(Post post, List<CommentDto> comments, FieldSelection fields) {
+            if (post == null) {
+                return null;
+            }
+            PostDto dto = new PostDto();
+            dto.setId(post.getId());
+            if (fields.includes("title")) {
+                dto.setTitle(post.getTitle());
+            }
+            if (fields.includes("content")) {
+                dto.setContent(post.getContent());
+            }
+            if (fields.includes("member")) {
+                dto.setMember(MemberDto.Mapper.fromAuthor(post.getAuthor(), post.getMember()));
+            }
+            if (fields.includes("createdAt")) {
+                dto.setCreatedAt(post.getCreatedAt());
+            }
+            if (fields.includes("comments")) {
+                dto.setComments(comments);
+            }
+            if (fields.includes("commentCount")) {
+                dto.setCommentCount(post.getCommentCount());
+            }
+            return dto;
+        }
+
+        public static PostDto fromFeedEntry(PostFeedEntry entry) {
+            return fromFeedEntry(entry, FieldSelection.ALL);
+        }
+
+        /**
+         * Converts a feed entry to a PostDto holding only the selected fields.
+         *
+         * @param entry  the feed entry to convert
+         * @param fields the selected fields
+         * @return the converted PostDto
+         */
+        public static PostDto fromFeedEntry(PostFeedEntry entry, FieldSelection fields) {
+            if (entry == null) {
+                return null;
+            }
+            List<CommentDto> latestComments = List.of();
+            if (fields.includes("comments")) {
+                // The aggregation returns the newest comments first; present them chronologically.
+                List<Comment> newestFirst = new ArrayList<>(entry.getLatestComments());
+                Collections.reverse(newestFirst);
+                latestComments = newestFirst.stream().map(CommentDto.Mapper::fromEntity).collect(Collectors.toList());
+            }
+            PostDto dto = fromEntityWithComments(entry.getPost(), latestComments, fields);
+            if (fields.includes("commentCount")) {
+                dto.setCommentCount(entry.getCommentCount());
+            }
+            return dto;
+        }
+
+        /**
+         * Lists the document properties to project for the selected fields.
+         *
+         * @param fields the selected fields
+         * @return the properties to fetch, or null when the whole document is needed
+         */
+        public static List<String> toEntityProperties(FieldSelection fields) {
+            if (fields.isAll()) {
+                return null;
+            }
+            return fields.fields().stream().flatMap(field -> FIELD_PROPERTIES.get(field).stream()).distinct().toList();
         }
     }
 }
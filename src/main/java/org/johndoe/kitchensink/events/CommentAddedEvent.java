@@ -0,0 +1,12 @@
+package org.johndoe.kitchensink.events;
+
+import org.johndoe.kitchensink.dtos.CommentDto;
+
+/**
+ * CommentAddedEvent is published after a comment has been added to a post.
+ *
+ * @param postId  the ID of the post
+ * @param comment the comment as saved
+ */
+public record CommentAddedEvent(String postId, CommentDto comment) {
+}
@@ -0,0 +1,11 @@
+package org.johndoe.kitchensink.events;
+
+import org.johndoe.kitchensink.documents.Member;
+
+/**
+ * MemberUpdatedEvent is published after a member's profile has been saved.
+ *
+ * @param member the member as saved
+ */
+public record MemberUpdatedEvent(Member member) {
+}
@@ -6,13 +6,14 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for Comment entity.
  */
 @Repository
-public interface CommentRepository extends MongoRepository<Comment, String> {
+public interface CommentRepository extends MongoRepository<Comment, String>, CommentRepositoryCustom {
 
     /**
      * Finds all comments on a specific post.
@@ -23,6 +24,15 @@ public interface CommentRepository extends MongoRepository<Comment, String> {
      */
     List<Comment> findByPostId(String postId, Sort createdAt);
 
+    /**
+     * Finds all comments on any of the given posts in a single query.
+     *
+     * @param postIds the IDs of the posts
+     * @param sort    sort order applied to the combined result
+     * @return a list of comments across all the given posts
+     */
+    List<Comment> findByPostIdIn(Collection<String> postIds, Sort sort);
+
     /**
      * Finds all comments made by a specific user.
      *
@@ -52,13 +62,15 @@ public interface CommentRepository extends MongoRepository<Comment, String> {
      *
      * @param commentId the ID of the post
      * @param member    the member who created the post
+     * @return the deleted comments
      */
-    void deleteByCommentIdAndMember(String commentId, Member member);
+    List<Comment> deleteByCommentIdAndMember(String commentId, Member member);
 
     /**
      * Deletes a comment by its ID.
      *
      * @param commentId the ID of the post
+     * @return the deleted comments
      */
-    void deleteByCommentId(String commentId);
+    List<Comment> deleteByCommentId(String commentId);
 }
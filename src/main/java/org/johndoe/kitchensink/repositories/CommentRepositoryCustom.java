@@ -0,0 +1,33 @@
+package org.johndoe.kitchensink.repositories;
+
+import org.johndoe.kitchensink.documents.Comment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom queries on the comments collection that cannot be expressed as derived or annotated queries.
+ */
+public interface CommentRepositoryCustom {
+
+    /**
+     * Fetches the newest comments of a post that come strictly after the given position in
+     * {@code (created_at desc, _id desc)} order, served by the {@code (postId, created_at)} index.
+     *
+     * @param postId    the ID of the post
+     * @param createdAt the creation date of the last comment already seen, or null for the first page
+     * @param commentId the ID of the last comment already seen, or null for the first page
+     * @param limit     the maximum number of comments to return
+     * @return the comments after the given position
+     */
+    List<Comment> findCommentsBefore(String postId, LocalDateTime createdAt, String commentId, int limit);
+
+    /**
+     * Fetches the latest update date over all comments, served by the {@code updated_at} index
+     * without reading any comment.
+     *
+     * @return the latest update date, or empty if there are no comments
+     */
+    Optional<LocalDateTime> findLastUpdatedAt();
+}
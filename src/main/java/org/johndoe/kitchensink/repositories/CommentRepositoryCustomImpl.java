@@ -0,0 +1,49 @@
+package org.johndoe.kitchensink.repositories;
+
+import org.bson.types.ObjectId;
+import org.johndoe.kitchensink.documents.Comment;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * MongoTemplate backed implementation of {@link CommentRepositoryCustom}.
+ */
+public class CommentRepositoryCustomImpl implements CommentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs a new CommentRepositoryCustomImpl.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public CommentRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Comment> findCommentsBefore(String postId, LocalDateTime createdAt, String commentId, int limit) {
+        Query query = new Query(Criteria.where("postId").is(postId)).limit(limit)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "commentId")));
+        if (createdAt != null && commentId != null) {
+            Object id = ObjectId.isValid(commentId) ? new ObjectId(commentId) : commentId;
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(createdAt),
+                    Criteria.where("createdAt").is(createdAt).and("commentId").lt(id)));
+        }
+        return mongoTemplate.find(query, Comment.class);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findLastUpdatedAt() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "updatedAt")).limit(1);
+        query.fields().include("updatedAt");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Comment.class)).map(Comment::getUpdatedAt);
+    }
+}
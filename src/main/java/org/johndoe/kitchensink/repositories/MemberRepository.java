@@ -1,18 +1,19 @@
 package org.johndoe.kitchensink.repositories;
 
 import org.johndoe.kitchensink.documents.Member;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for managing Member entities.
  */
 @Repository
-public interface MemberRepository extends MongoRepository<Member, Long> {
+public interface MemberRepository extends MongoRepository<Member, Long>, MemberRepositoryCustom {
 
     /**
      * Finds a member by their member ID.
@@ -30,29 +31,39 @@ public interface MemberRepository extends MongoRepository<Member, Long> {
     Optional<Member> findTopByOrderByMemberIdDesc();
 
     /**
-     * Finds a member by their email.
+     * Finds the members whose member ID comes strictly after the given one, in ascending order.
+     *
+     * @param memberId the member ID of the last member already seen
+     * @param limit    the maximum number of members to return
+     * @return the members after the given member ID
+     */
+    List<Member> findByMemberIdGreaterThanOrderByMemberIdAsc(Long memberId, Limit limit);
+
+    /**
+     * Finds a member by their email, ignoring case, through the email index.
      *
      * @param email the email address
      * @return an Optional containing the found member, or empty if not found
      */
-    @Query("{ 'email' : { $regex: ?0, $options: 'i' } }")
+    @Query(value = "{ 'email' : ?0 }", collation = Member.CASE_INSENSITIVE)
     Optional<Member> findByEmail(String email);
 
     /**
-     * Finds a member by their phone number.
+     * Finds a member by their phone number, through the phone number index.
      *
      * @param phoneNumber the phone number
      * @return an Optional containing the found member, or empty if not found
      */
+    @Query(value = "{ 'phoneNumber' : ?0 }", collation = Member.CASE_INSENSITIVE)
     Optional<Member> findByPhoneNumber(String phoneNumber);
 
     /**
-     * Finds a member by their name.
+     * Finds a member by their name, ignoring case, through the username index.
      *
      * @param username the name
      * @return an Optional containing the found member, or empty if not found
      */
-    @Query("{ 'username' : { $regex: ?0, $options: 'i' } }")
+    @Query(value = "{ 'username' : ?0 }", collation = Member.CASE_INSENSITIVE)
     Optional<Member> findByUsername(String username);
 
     /**
@@ -62,17 +73,6 @@ public interface MemberRepository extends MongoRepository<Member, Long> {
      */
     void deleteByMemberId(Long id);
 
-    /**
-     * Finds a member by their email or phone number, excluding the given member ID.
-     *
-     * @param email       the email address
-     * @param phoneNumber the phone number
-     * @param memberId    the member ID to exclude
-     * @return an Optional containing the found member, or empty if not found
-     */
-    @Query("{ $or: [ { 'email': ?0 }, { 'phoneNumber': ?1 } ], 'member_id': { $ne: ?2 } }")
-    Optional<Member> findByEmailOrPhoneNumberAndIdNot(String email, String phoneNumber, Long memberId);
-
     /**
      * Finds a member by their email or username.
      *
@@ -80,18 +80,6 @@ public interface MemberRepository extends MongoRepository<Member, Long> {
      * @return an Optional containing the found member, or empty if not found
      */
     @Query(value = "{ $or: [ { 'email': ?0 }, { 'username': ?0 } ] }",
-            collation = "{ 'locale': 'en', 'strength': 2 }")
+            collation = Member.CASE_INSENSITIVE)
     Optional<Member> findByEmailOrUsername(String identifier);
-
-    /**
-     * Finds a member by their email or phone number, excluding the given username.
-     *
-     * @param email       the email address
-     * @param phoneNumber the phone number
-     * @param username    the username
-     * @return an Optional containing the found member, or empty if not found
-     */
-    @Query("{ '$and': [ { '$or': [ { 'email': { '$regex': ?0, '$options': 'i' } }, { 'phoneNumber': ?1 } ] }, { 'username': { '$not': { '$regex': ?2, '$options': 'i' } } } ] }")
-    Optional<Member> findRecordsWithConflictingEmailOrPhoneNumber(@Param("email") String email, @Param("phoneNumber") String phoneNumber, @Param("username") String username);
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package org.johndoe.kitchensink.repositories;
+
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.dtos.MemberConflicts;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom queries on the members collection that cannot be expressed as derived or annotated queries.
+ */
+public interface MemberRepositoryCustom {
+
+    /**
+     * Fetches a slice of members, decoding only the given properties of each. No count is run;
+     * whether a next page exists is told by fetching one extra member.
+     *
+     * @param pageable   the page to fetch
+     * @param properties the member properties to fetch, or null for whole documents
+     * @return a slice of members
+     */
+    Slice<Member> findSlice(Pageable pageable, Collection<String> properties);
+
+    /**
+     * Fetches the members with a member ID greater than the given one, in member ID order,
+     * decoding only the given properties of each.
+     *
+     * @param memberId   the member ID of the last member already seen
+     * @param limit      the maximum number of members to return
+     * @param properties the member properties to fetch
+     * @return the members after the given member ID
+     */
+    List<Member> findMembersAfter(Long memberId, int limit, Collection<String> properties);
+
+    /**
+     * Fetches only the last update date of a member, matching the username regardless of case.
+     *
+     * @param username the username of the member
+     * @return the member holding only its ID and update date, or empty if there is no such member
+     */
+    Optional<Member> findUpdatedAtByUsername(String username);
+
+    /**
+     * Finds another member already holding an email or a phone number. The values and the excluded
+     * username match regardless of case, through their indexes.
+     *
+     * @param email       the email address, may be null
+     * @param phoneNumber the phone number, may be null
+     * @param username    the username of the member to exclude
+     * @return an Optional containing a conflicting member, or empty if there is none
+     */
+    Optional<Member> findRecordsWithConflictingEmailOrPhoneNumber(String email, String phoneNumber, String username);
+
+    /**
+     * Tells which of the given identity fields other members already hold, with one query served by
+     * the username, email and phone number indexes.
+     *
+     * @param username    the username, may be null
+     * @param email       the email address, may be null
+     * @param phoneNumber the phone number, may be null
+     * @return the fields that are taken
+     */
+    MemberConflicts findConflicts(String username, String email, String phoneNumber);
+}
@@ -0,0 +1,139 @@
+package org.johndoe.kitchensink.repositories;
+
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.dtos.MemberConflicts;
+import org.johndoe.kitchensink.utils.UtilityMethods;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MongoTemplate backed implementation of {@link MemberRepositoryCustom}.
+ */
+public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs a new MemberRepositoryCustomImpl.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public MemberRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Slice<Member> findSlice(Pageable pageable, Collection<String> properties) {
+        Query query = new Query().with(pageable);
+        if (pageable.isPaged()) {
+            query.limit(pageable.getPageSize() + 1);
+        }
+        if (properties != null) {
+            query.fields().include(properties.toArray(String[]::new));
+        }
+        return UtilityMethods.toSlice(mongoTemplate.find(query, Member.class), pageable);
+    }
+
+    @Override
+    public List<Member> findMembersAfter(Long memberId, int limit, Collection<String> properties) {
+        Query query = new Query(Criteria.where("memberId").gt(memberId)).limit(limit)
+                .with(Sort.by(Sort.Direction.ASC, "memberId"));
+        query.fields().include(properties.toArray(String[]::new));
+        return mongoTemplate.find(query, Member.class);
+    }
+
+    @Override
+    public Optional<Member> findUpdatedAtByUsername(String username) {
+        Query query = new Query(Criteria.where("username").is(username)).collation(Collation.parse(Member.CASE_INSENSITIVE));
+        query.fields().include("updatedAt");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Member.class));
+    }
+
+    @Override
+    public Optional<Member> findRecordsWithConflictingEmailOrPhoneNumber(String email, String phoneNumber, String username) {
+        List<Criteria> holders = new ArrayList<>();
+        if (email != null) {
+            holders.add(Criteria.where("email").is(email));
+        }
+        if (phoneNumber != null) {
+            holders.add(Criteria.where("phoneNumber").is(phoneNumber));
+        }
+        if (holders.isEmpty()) {
+            return Optional.empty();
+        }
+        Query query = new Query(new Criteria().orOperator(holders).and("username").ne(username))
+                .collation(Collation.parse(Member.CASE_INSENSITIVE));
+        return Optional.ofNullable(mongoTemplate.findOne(query, Member.class));
+    }
+
+    @Override
+    public MemberConflicts findConflicts(String username, String email, String phoneNumber) {
+        List<Criteria> holders = new ArrayList<>();
+        ProjectionOperation matches = Aggregation.project();
+        GroupOperation merged = Aggregation.group();
+        for (Map.Entry<String, String> field : identityFields(username, email, phoneNumber).entrySet()) {
+            holders.add(Criteria.where(field.getKey()).is(field.getValue()));
+            matches = matches.and(ComparisonOperators.valueOf(field.getKey()).equalToValue(field.getValue())).as(field.getKey());
+            merged = merged.max(field.getKey()).as(field.getKey());
+        }
+        if (holders.isEmpty()) {
+            return MemberConflicts.NONE;
+        }
+        // Each of the (at most three) members found tells which of the values it holds, compared
+        // under the same collation as the match, and the flags are merged into a single result.
+        TypedAggregation<Member> aggregation = Aggregation.newAggregation(Member.class,
+                Aggregation.match(new Criteria().orOperator(holders)),
+                Aggregation.limit(holders.size()),
+                matches,
+                merged
+        ).withOptions(AggregationOptions.builder().collation(Collation.parse(Member.CASE_INSENSITIVE)).build());
+
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (result == null) {
+            return MemberConflicts.NONE;
+        }
+        return new MemberConflicts(Boolean.TRUE.equals(result.getBoolean("username")), Boolean.TRUE.equals(result.getBoolean("email")),
+                Boolean.TRUE.equals(result.getBoolean("phoneNumber")));
+    }
+
+    /**
+     * Collects the identity fields to check, skipping the missing values.
+     *
+     * @param username    the username, may be null
+     * @param email       the email address, may be null
+     * @param phoneNumber the phone number, may be null
+     * @return the values by property name
+     */
+    private static Map<String, String> identityFields(String username, String email, String phoneNumber) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        if (username != null) {
+            fields.put("username", username);
+        }
+        if (email != null) {
+            fields.put("email", email);
+        }
+        if (phoneNumber != null) {
+            fields.put("phoneNumber", phoneNumber);
+        }
+        return fields;
+    }
+}
@@ -13,30 +13,24 @@ import java.util.Optional;
  * Repository interface for Post entity.
  */
 @Repository
-public interface PostRepository extends MongoRepository<Post, String> {
-
-    /**
-     * Finds posts containing a keyword in the title.
-     *
-     * @param keyword the keyword
-     * @return a list of matching posts
-     */
-    List<Post> findByTitleContainingIgnoreCase(String keyword);
+public interface PostRepository extends MongoRepository<Post, String>, PostRepositoryCustom {
 
     /**
      * Deletes a post by its ID and the member who created it.
      *
      * @param postId the ID of the post
      * @param member the member who created the post
+     * @return the number of posts deleted
      */
-    void deleteByPostIdAndMember(String postId, Member member);
+    long deleteByPostIdAndMember(String postId, Member member);
 
     /**
      * Deletes a post.
      *
      * @param postId the ID of the post
+     * @return the number of posts deleted
      */
-    void deleteByPostId(String postId);
+    long deleteByPostId(String postId);
 
     /**
      * Finds a post by its ID.
@@ -52,4 +46,11 @@ public interface PostRepository extends MongoRepository<Post, String> {
      * @return list of posts for a given member
      */
     List<Post> findByMemberOrderByCreatedAtDesc(Member member);
+
+    /**
+     * Finds the post with the most comments, served from the comment count index.
+     *
+     * @return the most commented post, if any
+     */
+    Optional<Post> findFirstByOrderByCommentCountDesc();
 }
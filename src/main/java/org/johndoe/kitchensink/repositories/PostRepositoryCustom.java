@@ -0,0 +1,109 @@
+package org.johndoe.kitchensink.repositories;
+
+import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.documents.PostFeedEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom queries on the posts collection that cannot be expressed as derived or annotated queries.
+ */
+public interface PostRepositoryCustom {
+
+    /**
+     * Fetches a slice of posts, decoding only the given properties of each. No count is run;
+     * whether a next page exists is told by fetching one extra post.
+     *
+     * @param pageable   the page to fetch
+     * @param properties the post properties to fetch, or null for whole documents
+     * @return a slice of posts
+     */
+    Slice<Post> findSlice(Pageable pageable, Collection<String> properties);
+
+    /**
+     * Fetches a page of the feed with a single aggregation over posts. Each entry carries
+     * at most {@code commentPreviewSize} of the latest comments and the total comment count.
+     *
+     * @param pageable           the page to fetch
+     * @param commentPreviewSize the maximum number of comments to embed per post
+     * @param properties         the post properties to fetch, or null for whole documents
+     * @return a slice of feed entries, fetched without a count
+     */
+    Slice<PostFeedEntry> findFeed(Pageable pageable, int commentPreviewSize, Collection<String> properties);
+
+    /**
+     * Fetches the newest posts that come strictly after the given position in
+     * {@code (created_at desc, _id desc)} order. Seeking on the sort key keeps the cost
+     * of a page independent of how deep it is.
+     *
+     * @param createdAt the creation date of the last post already seen, or null for the first page
+     * @param postId    the ID of the last post already seen, or null for the first page
+     * @param limit      the maximum number of posts to return
+     * @param properties the post properties to fetch, or null for whole documents
+     * @return the posts after the given position
+     */
+    List<Post> findPostsBefore(LocalDateTime createdAt, String postId, int limit, Collection<String> properties);
+
+    /**
+     * Sets the comment count of a post to the number of its comments, counted on the server, and
+     * bumps its comments version. Called after a comment is written, the count includes that
+     * comment whichever writer's recount lands last.
+     * <p>
+     * The update only applies if the comments version is still the one read before counting, so a
+     * recount cannot overwrite a newer one; it is retried up to {@value #MAX_RECOUNT_ATTEMPTS}
+     * times, after which the count is left to {@code CommentCountReconciler}.
+     *
+     * @param postId the ID of the post
+     * @return the post holding only its comment count and comments version after the update,
+     * or empty if the post does not exist or every attempt lost to another recount
+     */
+    Optional<Post> recountComments(String postId);
+
+    /**
+     * Number of times a recount of the comments of a post is attempted.
+     */
+    int MAX_RECOUNT_ATTEMPTS = 5;
+
+    /**
+     * Fetches the latest update date over all posts, served by the {@code updated_at} index
+     * without reading any post.
+     *
+     * @return the latest update date, or empty if there are no posts
+     */
+    Optional<LocalDateTime> findLastUpdatedAt();
+
+    /**
+     * Fetches only the comments version of a post.
+     *
+     * @param postId the ID of the post
+     * @return the comments version, or empty if the post does not exist
+     */
+    Optional<Long> findCommentsVersion(String postId);
+
+    /**
+     * Returns the number of posts read from the collection metadata, without a scan.
+     *
+     * @return the estimated number of posts
+     */
+    long estimatedCount();
+
+    /**
+     * Fetches the posts matching a text search, most relevant first, that come strictly after the
+     * given position in {@code (score desc, _id desc)} order. Matching goes through the weighted
+     * text index on title and content; each post carries its relevance score.
+     *
+     * @param terms   the search terms, in MongoDB text search syntax
+     * @param score   the score of the last post already seen, or null for the first page
+     * @param postId  the ID of the last post already seen, or null for the first page
+     * @param limit   the maximum number of posts to return
+     * @param maxTime the time after which the server aborts the search
+     * @return the matching posts after the given position
+     */
+    List<Post> searchPosts(String terms, Double score, String postId, int limit, Duration maxTime);
+}
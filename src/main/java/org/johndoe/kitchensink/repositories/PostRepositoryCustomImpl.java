@@ -0,0 +1,202 @@
+package org.johndoe.kitchensink.repositories;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.documents.PostFeedEntry;
+import org.johndoe.kitchensink.utils.UtilityMethods;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * MongoTemplate backed implementation of {@link PostRepositoryCustom}.
+ */
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    /**
+     * Default feed ordering when the request does not specify one.
+     */
+    private static final Sort DEFAULT_FEED_SORT = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs a new PostRepositoryCustomImpl.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public PostRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Slice<Post> findSlice(Pageable pageable, Collection<String> properties) {
+        Query query = new Query().with(pageable);
+        if (pageable.isPaged()) {
+            query.limit(pageable.getPageSize() + 1);
+        }
+        if (properties != null) {
+            query.fields().include(properties.toArray(String[]::new));
+        }
+        return UtilityMethods.toSlice(mongoTemplate.find(query, Post.class), pageable);
+    }
+
+    @Override
+    public Slice<PostFeedEntry> findFeed(Pageable pageable, int commentPreviewSize, Collection<String> properties) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.sort(pageable.getSortOr(DEFAULT_FEED_SORT)));
+        if (pageable.isPaged()) {
+            stages.add(Aggregation.skip(pageable.getOffset()));
+            stages.add(Aggregation.limit(pageable.getPageSize() + 1L));
+        }
+        if (properties != null) {
+            // The ID is always kept, so fieldsets selecting no stored property still project something.
+            Document projection = new Document("_id", 1);
+            properties.forEach(property -> projection.append(fieldName(property), 1));
+            stages.add(context -> new Document("$project", projection));
+        }
+        stages.add(context -> new Document("$replaceRoot", new Document("newRoot", new Document("post", "$$ROOT"))));
+        if (commentPreviewSize > 0) {
+            stages.add(context -> latestCommentsLookup(commentPreviewSize));
+        }
+        stages.add(context -> new Document("$project", new Document("_id", 0)
+                .append("post", 1)
+                .append("latestComments", new Document("$ifNull", List.of("$latestComments", List.of())))
+                .append("commentCount", new Document("$ifNull", List.of("$post.commentCount", 0)))));
+
+        List<PostFeedEntry> content = mongoTemplate
+                .aggregate(Aggregation.newAggregation(stages), Post.class, PostFeedEntry.class)
+                .getMappedResults();
+
+        return UtilityMethods.toSlice(content, pageable);
+    }
+
+    @Override
+    public List<Post> findPostsBefore(LocalDateTime createdAt, String postId, int limit, Collection<String> properties) {
+        Query query = new Query().limit(limit)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "postId")));
+        if (properties != null) {
+            query.fields().include(properties.toArray(String[]::new));
+        }
+        if (createdAt != null && postId != null) {
+            Object id = ObjectId.isValid(postId) ? new ObjectId(postId) : postId;
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(createdAt),
+                    Criteria.where("createdAt").is(createdAt).and("postId").lt(id)));
+        }
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    @Override
+    public Optional<Post> recountComments(String postId) {
+        Object id = ObjectId.isValid(postId) ? new ObjectId(postId) : postId;
+        Query version = new Query(Criteria.where("_id").is(id));
+        version.fields().include("commentsVersion");
+        for (int attempt = 0; attempt < MAX_RECOUNT_ATTEMPTS; attempt++) {
+            // Read raw, as posts written before the version existed have none rather than 0.
+            Document current = mongoTemplate.findOne(version, Document.class, mongoTemplate.getCollectionName(Post.class));
+            if (current == null) {
+                return Optional.empty();
+            }
+            long count = mongoTemplate.count(new Query(Criteria.where("postId").is(postId)), Comment.class);
+
+            Query unchanged = new Query(Criteria.where("_id").is(id).and("commentsVersion").is(current.get("commentsVersion")));
+            unchanged.fields().include("commentCount", "commentsVersion");
+            Update update = new Update().set("commentCount", count).inc("commentsVersion", 1).currentDate("updatedAt");
+            Post updated = mongoTemplate.findAndModify(unchanged, update, FindAndModifyOptions.options().returnNew(true), Post.class);
+            if (updated != null) {
+                return Optional.of(updated);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Post> searchPosts(String terms, Double score, String postId, int limit, Duration maxTime) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(terms)));
+        stages.add(context -> new Document("$addFields", new Document("score", new Document("$meta", "textScore"))));
+        if (score != null && postId != null) {
+            Object id = ObjectId.isValid(postId) ? new ObjectId(postId) : postId;
+            stages.add(context -> new Document("$match", new Document("$or", List.of(
+                    new Document("score", new Document("$lt", score)),
+                    new Document("score", score).append("_id", new Document("$lt", id))))));
+        }
+        stages.add(context -> new Document("$sort", new Document("score", -1).append("_id", -1)));
+        stages.add(Aggregation.limit(limit));
+        stages.add(Aggregation.project().andExclude("commentIds"));
+
+        AggregationOptions options = AggregationOptions.builder().maxTime(maxTime).build();
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages).withOptions(options), Post.class, Post.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public Optional<LocalDateTime> findLastUpdatedAt() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "updatedAt")).limit(1);
+        query.fields().include("updatedAt");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Post.class)).map(Post::getUpdatedAt);
+    }
+
+    @Override
+    public Optional<Long> findCommentsVersion(String postId) {
+        Query query = new Query(Criteria.where("postId").is(postId));
+        query.fields().include("commentsVersion");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Post.class)).map(Post::getCommentsVersion);
+    }
+
+    @Override
+    public long estimatedCount() {
+        return mongoTemplate.estimatedCount(Post.class);
+    }
+
+    /**
+     * Resolves the document field name of a post property, for stages written as raw documents.
+     *
+     * @param property the property name
+     * @return the field name
+     */
+    private String fieldName(String property) {
+        return mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Post.class)
+                .getRequiredPersistentProperty(property)
+                .getFieldName();
+    }
+
+    /**
+     * Builds the $lookup stage that joins each post with only its latest {@code previewSize}
+     * comments. The total is read from the post's maintained comment count instead.
+     *
+     * @param previewSize the number of comments to keep
+     * @return the $lookup stage
+     */
+    private Document latestCommentsLookup(int previewSize) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("$expr", new Document("$eq", List.of("$postId", "$$postId")))),
+                new Document("$sort", new Document("created_at", -1).append("_id", -1)),
+                new Document("$limit", previewSize));
+
+        return new Document("$lookup", new Document("from", "comments")
+                .append("let", new Document("postId", new Document("$toString", "$post._id")))
+                .append("pipeline", pipeline)
+                .append("as", "latestComments"));
+    }
+}
@@ -1,17 +1,25 @@
 package org.johndoe.kitchensink.services;
 
 import lombok.AllArgsConstructor;
+import org.johndoe.kitchensink.config.CoalescingCache;
 import org.johndoe.kitchensink.documents.Member;
 import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.dtos.ImportReport;
+import org.johndoe.kitchensink.dtos.IndexReport;
 import org.johndoe.kitchensink.dtos.MemberDto;
 import org.johndoe.kitchensink.exceptions.UserNotFoundException;
 import org.johndoe.kitchensink.repositories.CommentRepository;
 import org.johndoe.kitchensink.repositories.PostRepository;
 import org.johndoe.kitchensink.utils.ApplicationConstants;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,8 +34,15 @@ public class AdminService {
     private PostRepository postRepository;
     private CommentRepository commentRepository;
     private KeycloakAuthService keycloakService;
-
-    @Cacheable(value = "analytics", key = "'global'")
+    private MemberReferenceResolver memberReferenceResolver;
+    private CacheManager cacheManager;
+    private IndexCatalogService indexCatalogService;
+    private PostSearchIndex postSearchIndex;
+    private PostExportService postExportService;
+    private BulkImportService bulkImportService;
+    private MemberIdentityFilter memberIdentityFilter;
+
+    @Cacheable(value = "analytics", key = "'global'", sync = true)
     public Map<String, Object> getAnalytics() {
         Map<String, Object> stats = new HashMap<>();
 
@@ -50,8 +65,7 @@ public class AdminService {
                 Map<String, Object> postData = new HashMap<>();
                 postData.put("postTitle", post.getTitle());
                 postData.put("postId", post.getId());
-                int commentCount = commentRepository.countByPostId(post.getId());
-                postData.put("totalComments", commentCount);
+                postData.put("totalComments", post.getCommentCount());
                 return postData;
             }).collect(Collectors.toList());
 
@@ -61,22 +75,107 @@ public class AdminService {
 
         stats.put("members", memberStats);
 
-        Optional<Post> topPost = postRepository.findAll().stream()
-                .max(Comparator.comparingInt(post -> commentRepository.countByPostId(post.getId())));
+        Optional<Post> topPost = postRepository.findFirstByOrderByCommentCountDesc();
 
         topPost.ifPresent(post -> {
-            long topPostCommentCount = commentRepository.countByPostId(post.getId());
+            memberReferenceResolver.resolveAuthors(List.of(post));
             Map<String, Object> topPostData = new HashMap<>();
             topPostData.put("postTitle", post.getTitle());
             topPostData.put("postId", post.getPostId());
-            topPostData.put("member", post.getMember().getFirstName() +" "+ post.getMember().getLastName());
-            topPostData.put("totalComments", topPostCommentCount);
+            topPostData.put("member", post.getAuthor() != null ? post.getAuthor().getDisplayName() : null);
+            topPostData.put("totalComments", post.getCommentCount());
             stats.put("topPost", topPostData);
         });
 
         return stats;
     }
 
+    /**
+     * Gets the lookup statistics of every cache, including how many misses were coalesced into a
+     * load already in flight for the same key, and the hits, misses, size and evictions of the
+     * underlying cache.
+     *
+     * @return statistics keyed by cache name
+     */
+    public Map<String, Object> getCacheStatistics() {
+        Map<String, Object> statistics = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CoalescingCache coalescingCache) {
+                statistics.put(name, coalescingCache.getStatistics());
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Gets the state of the in-memory post search index, including its estimated heap size.
+     *
+     * @return statistics keyed by name
+     */
+    public Map<String, Object> getSearchIndexStatistics() {
+        return postSearchIndex.getStatistics();
+    }
+
+    /**
+     * Gets the state of the member identity filter, including its estimated heap size and the
+     * memory budget it is sized within.
+     *
+     * @return statistics keyed by name
+     */
+    public Map<String, Object> getIdentityFilterStatistics() {
+        return memberIdentityFilter.getStatistics();
+    }
+
+    /**
+     * Rebuilds the member identity filter from the members in the database.
+     *
+     * @return the statistics of the rebuilt filter
+     */
+    public Map<String, Object> rebuildIdentityFilter() {
+        memberIdentityFilter.rebuild();
+        return memberIdentityFilter.getStatistics();
+    }
+
+    /**
+     * Streams every post with its comments as NDJSON.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written to
+     */
+    public void exportPosts(OutputStream out) throws IOException {
+        postExportService.exportPosts(out);
+    }
+
+    /**
+     * Imports posts and comments in bulk from NDJSON.
+     *
+     * @param in the stream to read the records from
+     * @return the number of records read and written, and the errors of those rejected
+     * @throws IOException if the stream cannot be read
+     */
+    public ImportReport importRecords(InputStream in) throws IOException {
+        return bulkImportService.importRecords(in);
+    }
+
+    /**
+     * Compares the declared indexes of every collection with the indexes the server holds and uses.
+     *
+     * @return the report of every collection
+     */
+    public List<IndexReport> getIndexReports() {
+        return indexCatalogService.getReports();
+    }
+
+    /**
+     * Builds the declared indexes the server does not hold yet.
+     *
+     * @return the report of every collection after the builds
+     */
+    public List<IndexReport> ensureIndexes() {
+        return indexCatalogService.ensureIndexes();
+    }
+
     /**
      * Assigns admin roles to a user.
      *
@@ -0,0 +1,83 @@
+package org.johndoe.kitchensink.services;
+
+import org.johndoe.kitchensink.documents.AuthorSnapshot;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.events.MemberUpdatedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Service keeping the author snapshots embedded in posts and comments in sync with the members they copy.
+ */
+@Service
+public class AuthorSnapshotService {
+
+    /**
+     * Logger for AuthorSnapshotService.
+     */
+    private static final Logger log = LoggerFactory.getLogger(AuthorSnapshotService.class);
+
+    /**
+     * Number of posts whose comments version is bumped with one update.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs a new AuthorSnapshotService.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public AuthorSnapshotService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Re-syncs snapshots in the background whenever a member's profile changes.
+     *
+     * @param event the member updated event
+     */
+    @Async
+    @EventListener
+    public void onMemberUpdated(MemberUpdatedEvent event) {
+        resync(event.member());
+    }
+
+    /**
+     * Overwrites the author snapshot of every post and comment written by the given member. The
+     * comments version of the posts written by the member, and of the posts holding comments
+     * written by the member, is bumped as well, so that cached copies and entity tags of these
+     * posts are known to be stale.
+     *
+     * @param member the member as currently saved
+     */
+    public void resync(Member member) {
+        Query authoredBy = new Query(where("author.memberId").is(member.getMemberId()));
+        Update update = new Update().set("author", AuthorSnapshot.of(member)).currentDate("updatedAt");
+
+        long posts = mongoTemplate.updateMulti(authoredBy, new Update().set("author", AuthorSnapshot.of(member))
+                .inc("commentsVersion", 1).currentDate("updatedAt"), Post.class).getModifiedCount();
+        long comments = mongoTemplate.updateMulti(authoredBy, update, Comment.class).getModifiedCount();
+        if (comments > 0) {
+            List<String> commentedPostIds = mongoTemplate.findDistinct(authoredBy, "postId", Comment.class, String.class);
+            for (int from = 0; from < commentedPostIds.size(); from += BATCH_SIZE) {
+                List<String> batch = commentedPostIds.subList(from, Math.min(from + BATCH_SIZE, commentedPostIds.size()));
+                mongoTemplate.updateMulti(new Query(where("postId").in(batch)), new Update().inc("commentsVersion", 1), Post.class);
+            }
+        }
+        log.info("Re-synced author snapshot of member {} on {} posts and {} comments", member.getMemberId(), posts, comments);
+    }
+}
@@ -0,0 +1,347 @@
+package org.johndoe.kitchensink.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ErrorCategory;
+import org.bson.types.ObjectId;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.dtos.ImportRecord;
+import org.johndoe.kitchensink.dtos.ImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Imports posts and comments in bulk from NDJSON, one {@link ImportRecord} per line, e.g. when
+ * migrating from another forum.
+ * <p>
+ * Records are processed in batches of {@link #BATCH_SIZE}. The authors of a batch are looked up
+ * with one query, and its posts, comments and comment counts are each written with one unordered
+ * bulk write, so a failing record neither stops the others nor costs a round trip of its own.
+ * Posts of a batch are written before its comments, so a comment may refer to a post earlier in
+ * the same import. Rejected records are reported by line number.
+ */
+@Service
+public class BulkImportService {
+
+    /**
+     * Logger for BulkImportService.
+     */
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    /**
+     * Number of records written together.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    /**
+     * Number of errors reported in detail; further errors are only counted.
+     */
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final PostCacheWriter postCacheWriter;
+    private final PostSearchIndex postSearchIndex;
+    private final CommentCountReconciler commentCountReconciler;
+
+    /**
+     * Constructs a new BulkImportService.
+     *
+     * @param mongoTemplate   the mongo template
+     * @param objectMapper    the object mapper used for the request bodies
+     * @param postCacheWriter the writer evicting posts whose comments changed
+     * @param postSearchIndex        the in-memory search index
+     * @param commentCountReconciler the reconciler recounting the comments of the posts imported into
+     */
+    public BulkImportService(MongoTemplate mongoTemplate, ObjectMapper objectMapper, PostCacheWriter postCacheWriter,
+                             PostSearchIndex postSearchIndex, CommentCountReconciler commentCountReconciler) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.postCacheWriter = postCacheWriter;
+        this.postSearchIndex = postSearchIndex;
+        this.commentCountReconciler = commentCountReconciler;
+    }
+
+    /**
+     * Imports the records read from a stream of NDJSON. Blank lines are skipped.
+     *
+     * @param in the stream to read from
+     * @return the number of records read and written, and the errors of those rejected
+     * @throws IOException if the stream cannot be read
+     */
+    public ImportReport importRecords(InputStream in) throws IOException {
+        Progress progress = new Progress();
+        List<Line> batch = new ArrayList<>(BATCH_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long number = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            number++;
+            if (text.isBlank()) {
+                continue;
+            }
+            progress.received++;
+            try {
+                batch.add(new Line(number, objectMapper.readValue(text, ImportRecord.class)));
+            } catch (JsonProcessingException e) {
+                progress.reject(number, "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (batch.size() == BATCH_SIZE) {
+                importBatch(batch, progress);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, progress);
+        }
+        log.info("Imported {} of {} records", progress.inserted, progress.received);
+        return new ImportReport(progress.received, progress.inserted, progress.failed, List.copyOf(progress.errors));
+    }
+
+    /**
+     * Validates and writes a batch of records.
+     *
+     * @param batch    the records
+     * @param progress the progress of the import, updated with the outcome of every record
+     */
+    private void importBatch(List<Line> batch, Progress progress) {
+        List<Line> valid = batch.stream().filter(line -> validate(line, progress)).toList();
+        Map<String, Member> members = findMembers(valid);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Line> postLines = new ArrayList<>();
+        List<Post> posts = new ArrayList<>();
+        List<Line> commentLines = new ArrayList<>();
+        for (Line line : valid) {
+            ImportRecord record = line.record();
+            Member member = members.get(record.username().toLowerCase(Locale.ROOT));
+            if (member == null) {
+                progress.reject(line.number(), "Unknown user: " + record.username());
+            } else if (ImportRecord.POST.equals(record.type())) {
+                // IDs are assigned up front, so auditing keeps the original creation dates.
+                Post post = new Post(idOf(record), member, record.title(), record.content(), new ArrayList<>());
+                post.setCreatedAt(record.createdAt() != null ? record.createdAt() : now);
+                postLines.add(line);
+                posts.add(post);
+            } else {
+                commentLines.add(line);
+            }
+        }
+
+        Set<String> insertedPosts = new HashSet<>();
+        Map<Integer, String> postFailures = insert(posts, Post.class);
+        for (int i = 0; i < posts.size(); i++) {
+            Post post = posts.get(i);
+            if (record(postFailures, i, postLines.get(i), progress)) {
+                insertedPosts.add(post.getPostId());
+                postSearchIndex.add(post.getPostId(), post.getTitle(), post.getContent());
+            }
+        }
+
+        Set<String> knownPosts = findExistingPosts(commentLines, insertedPosts);
+        List<Line> acceptedCommentLines = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (Line line : commentLines) {
+            ImportRecord record = line.record();
+            if (!knownPosts.contains(record.postId())) {
+                progress.reject(line.number(), "Unknown post: " + record.postId());
+                continue;
+            }
+            Comment comment = new Comment(idOf(record), members.get(record.username().toLowerCase(Locale.ROOT)), record.postId(), record.content());
+            comment.setCreatedAt(record.createdAt() != null ? record.createdAt() : now);
+            acceptedCommentLines.add(line);
+            comments.add(comment);
+        }
+
+        Set<String> commentedPosts = new LinkedHashSet<>();
+        Map<Integer, String> commentFailures = insert(comments, Comment.class);
+        for (int i = 0; i < comments.size(); i++) {
+            if (record(commentFailures, i, acceptedCommentLines.get(i), progress)) {
+                commentedPosts.add(comments.get(i).getPostId());
+            }
+        }
+        recountComments(commentedPosts);
+    }
+
+    /**
+     * Checks that a record has the fields its type requires.
+     *
+     * @param line     the record
+     * @param progress the progress of the import, updated if the record is rejected
+     * @return true if the record is valid
+     */
+    private static boolean validate(Line line, Progress progress) {
+        ImportRecord record = line.record();
+        String error = null;
+        if (!ImportRecord.POST.equals(record.type()) && !ImportRecord.COMMENT.equals(record.type())) {
+            error = "Type must be " + ImportRecord.POST + " or " + ImportRecord.COMMENT;
+        } else if (record.username() == null || record.username().isBlank()) {
+            error = "Username is required";
+        } else if (record.content() == null || record.content().isBlank()) {
+            error = "Content cannot be empty";
+        } else if (ImportRecord.POST.equals(record.type()) && (record.title() == null || record.title().isBlank())) {
+            error = "Title cannot be empty";
+        } else if (ImportRecord.COMMENT.equals(record.type()) && (record.postId() == null || record.postId().isBlank())) {
+            error = "Post ID is required";
+        }
+        if (error != null) {
+            progress.reject(line.number(), error);
+        }
+        return error == null;
+    }
+
+    /**
+     * Finds the authors of a batch with one query, matching usernames case-insensitively.
+     *
+     * @param lines the records
+     * @return the members keyed by lower-case username
+     */
+    private Map<String, Member> findMembers(List<Line> lines) {
+        Set<String> usernames = new HashSet<>();
+        lines.forEach(line -> usernames.add(line.record().username()));
+        if (usernames.isEmpty()) {
+            return Map.of();
+        }
+        Query query = new Query(where("username").in(usernames)).collation(Collation.parse(Member.CASE_INSENSITIVE));
+        Map<String, Member> members = new HashMap<>();
+        mongoTemplate.find(query, Member.class).forEach(member -> members.put(member.getUsername().toLowerCase(Locale.ROOT), member));
+        return members;
+    }
+
+    /**
+     * Finds which of the posts commented on exist, with one query for those not written by this batch.
+     *
+     * @param commentLines  the comment records
+     * @param insertedPosts the IDs of the posts written by this batch
+     * @return the IDs of the posts that exist
+     */
+    private Set<String> findExistingPosts(List<Line> commentLines, Set<String> insertedPosts) {
+        Set<String> known = new HashSet<>(insertedPosts);
+        Set<String> unknown = new HashSet<>();
+        commentLines.forEach(line -> unknown.add(line.record().postId()));
+        unknown.removeAll(known);
+        if (!unknown.isEmpty()) {
+            Query query = new Query(where("postId").in(unknown));
+            query.fields().include("postId");
+            mongoTemplate.find(query, Post.class).forEach(post -> known.add(post.getPostId()));
+        }
+        return known;
+    }
+
+    /**
+     * Inserts documents with one unordered bulk write, so a failing document does not stop the others.
+     *
+     * @param documents the documents
+     * @param type      the type of the documents
+     * @return the error of every document that was not written, keyed by its position
+     */
+    private Map<Integer, String> insert(List<?> documents, Class<?> type) {
+        if (documents.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(documents).execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            e.getErrors().forEach(error -> failures.put(error.getIndex(),
+                    ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY ? "Duplicate ID" : error.getMessage()));
+            return failures;
+        }
+    }
+
+    /**
+     * Records the outcome of writing a document.
+     *
+     * @param failures the errors of the bulk write, keyed by position
+     * @param index    the position of the document in the bulk write
+     * @param line     the record of the document
+     * @param progress the progress of the import
+     * @return true if the document was written
+     */
+    private static boolean record(Map<Integer, String> failures, int index, Line line, Progress progress) {
+        String failure = failures.get(index);
+        if (failure != null) {
+            progress.reject(line.number(), failure);
+            return false;
+        }
+        progress.inserted++;
+        return true;
+    }
+
+    /**
+     * Recounts the comments of the posts imported into, with one aggregation and one bulk write,
+     * and evicts the posts from the cache.
+     *
+     * @param postIds the IDs of the posts comments were added to
+     */
+    private void recountComments(Set<String> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        commentCountReconciler.reconcile(postIds);
+        postIds.forEach(postCacheWriter::evict);
+    }
+
+    /**
+     * Returns the ID a record is to be stored under, generating one if it has none.
+     *
+     * @param record the record
+     * @return the ID
+     */
+    private static String idOf(ImportRecord record) {
+        return record.id() != null && !record.id().isBlank() ? record.id() : new ObjectId().toHexString();
+    }
+
+    /**
+     * A parsed record and its line number.
+     *
+     * @param number the line number, starting at 1
+     * @param record the record
+     */
+    private record Line(long number, ImportRecord record) {
+    }
+
+    /**
+     * Counts of an import in progress and the errors reported so far.
+     */
+    private static final class Progress {
+
+        private long received;
+        private long inserted;
+        private long failed;
+        private final List<ImportReport.RecordError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RecordError(line, message));
+            }
+        }
+    }
+}
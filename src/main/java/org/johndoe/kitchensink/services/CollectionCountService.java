@@ -0,0 +1,42 @@
+package org.johndoe.kitchensink.services;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service providing cheap, approximate document counts for paginated listings. Counts come from
+ * collection metadata rather than a scan, and are cached for a short while on top of that, each
+ * expiring after the time to live of the {@value #CACHE_NAME} cache.
+ */
+@Service
+public class CollectionCountService {
+
+    /**
+     * Name of the cache holding the estimated counts.
+     */
+    public static final String CACHE_NAME = "collectionCounts";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs a new CollectionCountService.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public CollectionCountService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Returns the estimated number of documents in the collection of an entity, read from the
+     * collection metadata. It may lag behind recent writes by up to the cache lifetime.
+     *
+     * @param entityClass the entity class
+     * @return the estimated number of documents
+     */
+    @Cacheable(value = CACHE_NAME, key = "#entityClass.simpleName")
+    public long estimatedCount(Class<?> entityClass) {
+        return mongoTemplate.estimatedCount(entityClass);
+    }
+}
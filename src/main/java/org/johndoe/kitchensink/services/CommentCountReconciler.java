@@ -0,0 +1,225 @@
+package org.johndoe.kitchensink.services;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Post;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Periodically repairs drift between the maintained comment count of each post and the
+ * actual number of comments, e.g. after a request failing between writing a comment and
+ * recounting its post, or a direct database edit.
+ * The first run also initializes the counts of posts written before they were maintained.
+ * <p>
+ * Comment writers recount the post rather than increment its count, so a correction racing with
+ * them cannot count a comment twice. Each run holds a lease in the {@value #LEASES} collection, so
+ * only one node reconciles at a time.
+ */
+@Service
+public class CommentCountReconciler {
+
+    /**
+     * Logger for CommentCountReconciler.
+     */
+    private static final Logger log = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+    /**
+     * Number of posts recounted, and corrected in one bulk operation, together.
+     */
+    static final int BATCH_SIZE = 500;
+
+    /**
+     * Name of the collection holding the leases of scheduled jobs, keyed by job name.
+     */
+    static final String LEASES = "leases";
+
+    /**
+     * Name of the lease held while reconciling.
+     */
+    static final String LEASE = "comment-count-reconciler";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Identifies this node as the holder of a lease.
+     */
+    private final String node = UUID.randomUUID().toString();
+
+    /**
+     * Time after which a lease not released, e.g. by a node that stopped mid-run, can be taken over.
+     */
+    @Value("${app.comment-count.reconcile-lease:PT30M}")
+    Duration leaseTime = Duration.ofMinutes(30);
+
+    /**
+     * Constructs a new CommentCountReconciler.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public CommentCountReconciler(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Streams the posts in batches and, for each batch, recounts the comments of its posts with one
+     * aggregation right before correcting every post whose count differs. A correction only applies
+     * if the comments version is still the one read with the post, so it never overwrites an
+     * recount that happened in the meantime; such posts are fixed on the next run. Only one batch
+     * of posts and counts is held at a time. The run is skipped while another node holds the lease.
+     *
+     * @return the number of posts corrected
+     */
+    @Scheduled(initialDelayString = "${app.comment-count.reconcile-initial-delay:PT1M}",
+            fixedDelayString = "${app.comment-count.reconcile-interval:PT1H}")
+    public long reconcile() {
+        if (!acquireLease()) {
+            log.debug("Comment counts are being reconciled by another node");
+            return 0;
+        }
+        try {
+            return reconcileAll();
+        } finally {
+            releaseLease();
+        }
+    }
+
+    /**
+     * Recounts the given posts right away, e.g. after comments were imported into them. Posts whose
+     * comments change meanwhile are left to the next run.
+     *
+     * @param postIds the post IDs
+     * @return the number of posts corrected
+     */
+    public long reconcile(Collection<String> postIds) {
+        if (postIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> ids = postIds.stream().<Object>map(id -> ObjectId.isValid(id) ? new ObjectId(id) : id).toList();
+        Query posts = new Query(where("_id").in(ids));
+        posts.fields().include("commentCount", "commentsVersion");
+        return reconcileBatch(mongoTemplate.find(posts, Document.class, mongoTemplate.getCollectionName(Post.class)));
+    }
+
+    /**
+     * Streams every post in batches and corrects the drifted ones.
+     *
+     * @return the number of posts corrected
+     */
+    private long reconcileAll() {
+        Query posts = new Query();
+        posts.fields().include("commentCount", "commentsVersion");
+        posts.cursorBatchSize(BATCH_SIZE);
+
+        long corrected = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(posts, Document.class, mongoTemplate.getCollectionName(Post.class))) {
+            Iterator<Document> iterator = documents.iterator();
+            List<Document> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == BATCH_SIZE || !iterator.hasNext()) {
+                    corrected += reconcileBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (corrected > 0) {
+            log.info("Reconciled comment counts on {} posts", corrected);
+        }
+        return corrected;
+    }
+
+    /**
+     * Takes the reconciliation lease if it is free or has expired. Taking it is a single upsert: if
+     * another node holds it, the upsert finds no free lease and fails to insert a second one.
+     *
+     * @return true if this node now holds the lease
+     */
+    private boolean acquireLease() {
+        Instant now = Instant.now();
+        Query free = new Query(where("_id").is(LEASE).and("lockedUntil").lt(now));
+        try {
+            mongoTemplate.upsert(free, new Update().set("lockedUntil", now.plus(leaseTime)).set("node", node), LEASES);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Releases the reconciliation lease, if this node still holds it.
+     */
+    private void releaseLease() {
+        mongoTemplate.updateFirst(new Query(where("_id").is(LEASE).and("node").is(node)),
+                new Update().set("lockedUntil", Instant.now()), LEASES);
+    }
+
+    /**
+     * Recounts the comments of a batch of posts and corrects the posts whose count differs.
+     *
+     * @param batch the raw posts, holding only their ID, comment count and comments version
+     * @return the number of posts corrected
+     */
+    private long reconcileBatch(List<Document> batch) {
+        Map<String, Long> actualCounts = countComments(batch.stream().map(document -> document.get("_id").toString()).toList());
+
+        BulkOperations bulk = null;
+        for (Document document : batch) {
+            Object id = document.get("_id");
+            Number stored = document.get("commentCount", Number.class);
+            long actual = actualCounts.getOrDefault(id.toString(), 0L);
+            if (stored != null && stored.longValue() == actual) {
+                continue;
+            }
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+            }
+            bulk.updateOne(new Query(where("_id").is(id).and("commentsVersion").is(document.get("commentsVersion"))),
+                    new Update().set("commentCount", actual).inc("commentsVersion", 1));
+        }
+        return bulk == null ? 0 : bulk.execute().getModifiedCount();
+    }
+
+    /**
+     * Counts the comments of the given posts on the server.
+     *
+     * @param postIds the post IDs
+     * @return comment counts keyed by post ID, without the posts that have none
+     */
+    private Map<String, Long> countComments(List<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(where("postId").in(postIds)),
+                Aggregation.group("postId").count().as("count"));
+        Map<String, Long> counts = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, Comment.class, Document.class).forEach(result -> {
+            Object postId = result.get("_id");
+            if (postId != null) {
+                counts.put(postId.toString(), result.get("count", Number.class).longValue());
+            }
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,204 @@
+package org.johndoe.kitchensink.services;
+
+import jakarta.annotation.PreDestroy;
+import org.johndoe.kitchensink.events.CommentAddedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes new comments to the clients watching a post, as Server-Sent Events.
+ * <p>
+ * Each subscriber has a buffer of {@link #BUFFER_SIZE} events, drained on a virtual thread of its
+ * own, so publishing a comment never waits on a client's connection. A subscriber whose buffer is
+ * full is not keeping up and is disconnected; clients reconnect and reload the thread. A heartbeat
+ * is queued like any other event, which keeps idle connections open through proxies and detects
+ * clients that went away.
+ */
+@Service
+public class CommentStreamService {
+
+    /**
+     * Logger for CommentStreamService.
+     */
+    private static final Logger log = LoggerFactory.getLogger(CommentStreamService.class);
+
+    /**
+     * Number of events buffered per subscriber before it is considered too slow.
+     */
+    static final int BUFFER_SIZE = 32;
+
+    /**
+     * Name of the events carrying a new comment.
+     */
+    static final String COMMENT_EVENT = "comment";
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${app.comments.stream.timeout:PT30M}")
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * Subscribes to the new comments on a post. The stream ends after {@code app.comments.stream.timeout},
+     * after which clients reconnect.
+     *
+     * @param postId the ID of the post
+     * @return the emitter to return from the request handler
+     */
+    public SseEmitter subscribe(String postId) {
+        return subscribe(postId, new SseEmitter(timeout.toMillis()));
+    }
+
+    /**
+     * Subscribes an emitter to the new comments on a post.
+     *
+     * @param postId  the ID of the post
+     * @param emitter the emitter to send the events to
+     * @return the emitter
+     */
+    SseEmitter subscribe(String postId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(postId, emitter);
+        subscribers.compute(postId, (id, watchers) -> {
+            Set<Subscriber> updated = watchers != null ? watchers : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        return emitter;
+    }
+
+    /**
+     * Pushes a new comment to the subscribers of its post, once the transaction that added it has
+     * committed.
+     *
+     * @param event the comment added event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentAdded(CommentAddedEvent event) {
+        Set<Subscriber> watchers = subscribers.get(event.postId());
+        if (watchers == null || watchers.isEmpty()) {
+            return;
+        }
+        // Built once and shared by the subscribers; the parts are ordered, so the set must keep its order.
+        Set<ResponseBodyEmitter.DataWithMediaType> data = Collections.unmodifiableSet(SseEmitter.event()
+                .id(event.comment().getId()).name(COMMENT_EVENT).data(event.comment()).build());
+        watchers.forEach(subscriber -> subscriber.offer(data));
+    }
+
+    /**
+     * Sends a heartbeat comment to every subscriber.
+     */
+    @Scheduled(fixedRateString = "${app.comments.stream.heartbeat-interval:PT15S}")
+    public void sendHeartbeats() {
+        Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = Collections.unmodifiableSet(SseEmitter.event().comment("heartbeat").build());
+        subscribers.values().forEach(watchers -> watchers.forEach(subscriber -> subscriber.offer(heartbeat)));
+    }
+
+    /**
+     * Counts the current subscribers.
+     *
+     * @return the number of subscribers across all posts
+     */
+    public int countSubscribers() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Stops the delivery threads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A client watching a post, with its buffer of events not sent yet.
+     */
+    private final class Subscriber {
+
+        private final String postId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(String postId, SseEmitter emitter) {
+            this.postId = postId;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queues an event without blocking, and starts draining the buffer unless it already is.
+         * A subscriber whose buffer is full is evicted.
+         *
+         * @param event the event
+         */
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                log.debug("Evicting slow comment stream subscriber of post {}", postId);
+                close();
+                // Completing waits for a send in progress, so it is left to the delivery thread.
+                executor.execute(emitter::complete);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Sends the buffered events in order. Only one thread drains a subscriber at a time; an event
+         * queued while the drain is finishing is picked up by the same drain.
+         */
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        // The client went away; the container completes the emitter.
+                        close();
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!closed && !buffer.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * Stops delivering to this subscriber and forgets it.
+         */
+        void close() {
+            closed = true;
+            buffer.clear();
+            subscribers.computeIfPresent(postId, (id, watchers) -> {
+                watchers.remove(this);
+                return watchers.isEmpty() ? null : watchers;
+            });
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.johndoe.kitchensink.services;
+
+import org.bson.Document;
+import org.johndoe.kitchensink.dtos.IndexReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service managing the catalog of MongoDB indexes. The catalog is declared on the documents with
+ * {@code @Indexed} and {@code @CompoundIndex}, including unique, partial and collation indexes.
+ * At startup the indexes missing on the server are built in the background, and the catalog can
+ * be compared with what the server holds and uses at any time.
+ * <p>
+ * Spring's automatic index creation is disabled in favour of this service: it blocks startup on
+ * every build, and a single failing build, e.g. a unique index over duplicate data, stops the
+ * application instead of being reported.
+ */
+@Service
+public class IndexCatalogService {
+
+    /**
+     * Logger for IndexCatalogService.
+     */
+    private static final Logger log = LoggerFactory.getLogger(IndexCatalogService.class);
+
+    /**
+     * Name of the index MongoDB maintains on {@code _id} of every collection.
+     */
+    private static final String ID_INDEX = "_id_";
+
+    private final MongoTemplate mongoTemplate;
+    private final IndexResolver indexResolver;
+
+    /**
+     * Constructs a new IndexCatalogService.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public IndexCatalogService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexResolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+    }
+
+    /**
+     * Builds the missing indexes in the background once the application is ready, so that a
+     * long build on a large collection never delays startup.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureIndexes();
+    }
+
+    /**
+     * Builds every declared index the server does not hold yet. Failures are logged and reported
+     * rather than thrown, so one bad index does not keep the others from being built.
+     *
+     * @return the report of every collection after the builds
+     */
+    public List<IndexReport> ensureIndexes() {
+        for (MongoPersistentEntity<?> entity : documents()) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getCollection());
+            Set<String> existing = indexNames(indexOps.getIndexInfo());
+            for (IndexDefinition definition : indexResolver.resolveIndexFor(entity.getType())) {
+                String name = indexName(definition);
+                if (existing.contains(name)) {
+                    continue;
+                }
+                try {
+                    indexOps.ensureIndex(definition);
+                    log.info("Built index {} on {}", name, entity.getCollection());
+                } catch (DataAccessException e) {
+                    log.error("Could not build index {} on {}: {}", name, entity.getCollection(), e.getMessage());
+                }
+            }
+        }
+        List<IndexReport> reports = getReports();
+        reports.stream().filter(report -> !report.missing().isEmpty())
+                .forEach(report -> log.warn("Indexes {} are missing on {}", report.missing(), report.collection()));
+        return reports;
+    }
+
+    /**
+     * Compares the declared indexes of every collection with the indexes the server holds, and
+     * reads their usage from {@code $indexStats}. Usage is counted by each server since it started,
+     * so an index reported as unused may still serve rare operations.
+     *
+     * @return the report of every collection, ordered by collection name
+     */
+    public List<IndexReport> getReports() {
+        List<IndexReport> reports = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : documents()) {
+            String collection = entity.getCollection();
+            Set<String> declared = new LinkedHashSet<>();
+            indexResolver.resolveIndexFor(entity.getType()).forEach(definition -> declared.add(indexName(definition)));
+            Set<String> existing = indexNames(mongoTemplate.indexOps(collection).getIndexInfo());
+
+            List<String> missing = declared.stream().filter(name -> !existing.contains(name)).toList();
+            List<String> undeclared = existing.stream().filter(name -> !declared.contains(name) && !ID_INDEX.equals(name)).toList();
+            reports.add(new IndexReport(collection, List.copyOf(declared), missing, undeclared, unusedIndexes(collection)));
+        }
+        return reports;
+    }
+
+    /**
+     * Lists the indexes of a collection that have not served any operation.
+     *
+     * @param collection the collection name
+     * @return the names of the unused indexes, other than the {@code _id} index
+     */
+    private List<String> unusedIndexes(String collection) {
+        Aggregation indexStats = Aggregation.newAggregation(context -> new Document("$indexStats", new Document()));
+        List<String> unused = new ArrayList<>();
+        for (Document stats : mongoTemplate.aggregate(indexStats, collection, Document.class)) {
+            Document accesses = stats.get("accesses", Document.class);
+            Number ops = accesses == null ? null : accesses.get("ops", Number.class);
+            String name = stats.getString("name");
+            if (ops != null && ops.longValue() == 0 && !ID_INDEX.equals(name)) {
+                unused.add(name);
+            }
+        }
+        return unused;
+    }
+
+    /**
+     * Lists the mapped documents, which make up the catalog.
+     *
+     * @return the persistent entities backed by a collection, ordered by collection name
+     */
+    private List<MongoPersistentEntity<?>> documents() {
+        List<MongoPersistentEntity<?>> entities = new ArrayList<>(mongoTemplate.getConverter().getMappingContext().getPersistentEntities());
+        entities.removeIf(entity -> !entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class));
+        entities.sort(Comparator.comparing(MongoPersistentEntity::getCollection));
+        return entities;
+    }
+
+    /**
+     * Collects the names of the indexes a server holds.
+     *
+     * @param indexes the indexes
+     * @return the index names
+     */
+    private static Set<String> indexNames(List<IndexInfo> indexes) {
+        Set<String> names = new LinkedHashSet<>();
+        indexes.forEach(index -> names.add(index.getName()));
+        return names;
+    }
+
+    /**
+     * Reads the name of a declared index. Every index in the catalog is named, so that renaming
+     * a property does not silently leave the old index behind.
+     *
+     * @param definition the index definition
+     * @return the index name
+     */
+    private static String indexName(IndexDefinition definition) {
+        return definition.getIndexOptions().getString("name");
+    }
+}
@@ -0,0 +1,218 @@
+package org.johndoe.kitchensink.services;
+
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.dtos.MemberDto;
+import org.johndoe.kitchensink.exceptions.UserNotFoundException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.johndoe.kitchensink.dtos.MemberDto.Mapper.fromEntity;
+
+/**
+ * Cache of members keyed by member ID, with usernames and emails as aliases of the ID. Each member
+ * is cached once, whichever key it is looked up by, so a change to a member evicts exactly its
+ * entry and its aliases instead of every cached member.
+ * <p>
+ * Aliases live in a cache of their own and may outlive the member they point to. An alias is only
+ * trusted if the member it leads to still holds the aliased value; otherwise it is dropped and
+ * resolved again.
+ */
+@Component
+public class MemberCache {
+
+    /**
+     * Name of the cache holding members by member ID.
+     */
+    public static final String CACHE_NAME = "members";
+
+    /**
+     * Name of the cache holding member IDs by username and by email.
+     */
+    public static final String ALIASES_CACHE_NAME = "memberAliases";
+
+    /**
+     * Kinds of alias, prefixing the alias keys.
+     */
+    static final String USERNAME = "username";
+    static final String EMAIL = "email";
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Constructs a new MemberCache.
+     *
+     * @param cacheManager the cache manager
+     */
+    public MemberCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Gets a member by member ID, loading it on a miss.
+     *
+     * @param memberId the member ID
+     * @param loader   loads a member by member ID
+     * @return the member
+     * @throws UserNotFoundException if the member does not exist
+     */
+    public MemberDto get(Long memberId, Function<Long, Optional<Member>> loader) {
+        return load(cacheManager.getCache(CACHE_NAME), memberId,
+                () -> fromEntity(loader.apply(memberId).orElseThrow(() -> new UserNotFoundException(MemberService.MEMBER_NOT_FOUND))));
+    }
+
+    /**
+     * Gets a member by username, regardless of case.
+     *
+     * @param username the username
+     * @param byAlias  loads a member by username
+     * @param byId     loads a member by member ID
+     * @return the member
+     * @throws UserNotFoundException if the member does not exist
+     */
+    public MemberDto getByUsername(String username, Supplier<Optional<Member>> byAlias, Function<Long, Optional<Member>> byId) {
+        return getByAlias(USERNAME, username, MemberDto::getUsername, byAlias, byId);
+    }
+
+    /**
+     * Gets a member by email, regardless of case.
+     *
+     * @param email   the email
+     * @param byAlias loads a member by email
+     * @param byId    loads a member by member ID
+     * @return the member
+     * @throws UserNotFoundException if the member does not exist
+     */
+    public MemberDto getByEmail(String email, Supplier<Optional<Member>> byAlias, Function<Long, Optional<Member>> byId) {
+        return getByAlias(EMAIL, email, MemberDto::getEmail, byAlias, byId);
+    }
+
+    /**
+     * Evicts a member and its aliases, once it has changed or been deleted.
+     *
+     * @param member the member as saved, or as it was before it was deleted
+     */
+    public void evict(Member member) {
+        evict(member.getMemberId());
+        evictAlias(USERNAME, member.getUsername());
+        evictAlias(EMAIL, member.getEmail());
+    }
+
+    /**
+     * Evicts a member by member ID, along with its aliases if the member is cached.
+     *
+     * @param memberId the member ID
+     */
+    public void evict(Long memberId) {
+        Cache members = cacheManager.getCache(CACHE_NAME);
+        if (members == null || memberId == null) {
+            return;
+        }
+        MemberDto cached = members.get(memberId, MemberDto.class);
+        members.evict(memberId);
+        if (cached != null) {
+            evictAlias(USERNAME, cached.getUsername());
+            evictAlias(EMAIL, cached.getEmail());
+        }
+    }
+
+    /**
+     * Evicts an email alias, for an email a member no longer holds.
+     *
+     * @param email the email
+     */
+    public void evictEmail(String email) {
+        evictAlias(EMAIL, email);
+    }
+
+    /**
+     * Resolves an alias to a member ID, then gets the member by ID. Both steps load on a miss, so an
+     * alias seen for the first time costs a lookup by alias and a lookup by ID; afterwards, lookups
+     * by alias are served from the cache as long as lookups by ID are.
+     *
+     * @param kind    the kind of alias
+     * @param value   the aliased value
+     * @param holder  reads the aliased value of a member
+     * @param byAlias loads a member by alias
+     * @param byId    loads a member by member ID
+     * @return the member
+     */
+    private MemberDto getByAlias(String kind, String value, Function<MemberDto, String> holder,
+                                 Supplier<Optional<Member>> byAlias, Function<Long, Optional<Member>> byId) {
+        Cache aliases = cacheManager.getCache(ALIASES_CACHE_NAME);
+        String key = aliasKey(kind, value);
+        Callable<Long> resolve = () -> byAlias.get().map(Member::getMemberId)
+                .orElseThrow(() -> new UserNotFoundException(MemberService.MEMBER_NOT_FOUND));
+        for (int attempt = 0; ; attempt++) {
+            Long memberId = load(aliases, key, resolve);
+            try {
+                MemberDto member = get(memberId, byId);
+                if (value.equalsIgnoreCase(holder.apply(member)) || attempt > 0) {
+                    return member;
+                }
+            } catch (UserNotFoundException e) {
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+            // The alias outlived its member, or the value moved to another member.
+            if (aliases != null) {
+                aliases.evict(key);
+            }
+        }
+    }
+
+    /**
+     * Evicts an alias.
+     *
+     * @param kind  the kind of alias
+     * @param value the aliased value, may be null
+     */
+    private void evictAlias(String kind, String value) {
+        Cache aliases = cacheManager.getCache(ALIASES_CACHE_NAME);
+        if (aliases != null && value != null) {
+            aliases.evict(aliasKey(kind, value));
+        }
+    }
+
+    /**
+     * Builds the key of an alias. Usernames and emails are compared regardless of case, so their
+     * aliases are too.
+     *
+     * @param kind  the kind of alias
+     * @param value the aliased value
+     * @return the key
+     */
+    private static String aliasKey(String kind, String value) {
+        return kind + ':' + value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets a value from a cache, loading it on a miss, and rethrows what the loader threw.
+     *
+     * @param cache  the cache, or null to always load
+     * @param key    the key
+     * @param loader the loader
+     * @return the value
+     */
+    private static <T> T load(Cache cache, Object key, Callable<T> loader) {
+        try {
+            return cache == null ? loader.call() : cache.get(key, loader);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
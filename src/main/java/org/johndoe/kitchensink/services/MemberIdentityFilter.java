@@ -0,0 +1,239 @@
+package org.johndoe.kitchensink.services;
+
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.utils.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter over the usernames, emails and phone numbers of the members, answering
+ * most availability checks without a round trip to the server: a value the filter has not seen is
+ * certainly free, and only the values it may have seen are looked up.
+ * <p>
+ * The filter is built from a streaming scan of the members once the application is ready, and kept
+ * current by {@link MemberService} as members register and change their details on this node.
+ * Members written by other nodes or outside the application are only picked up by the next
+ * rebuild, run every {@code app.members.identity-filter.rebuild-interval} or on demand, so the
+ * filter only serves advisory checks and never replaces a lookup that guards a write. Values are
+ * only ever added; a value freed by a change or a deletion stays in the filter and is looked up.
+ * Until the filter is built, and for values it cannot compare like the case-insensitive collation
+ * of the member indexes does, every value is reported as possibly taken.
+ */
+@Service
+public class MemberIdentityFilter {
+
+    /**
+     * Logger for MemberIdentityFilter.
+     */
+    private static final Logger log = LoggerFactory.getLogger(MemberIdentityFilter.class);
+
+    /**
+     * Number of members fetched per batch during a rebuild.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    /**
+     * Fields of a member held in the filter, by property name.
+     */
+    public static final String USERNAME = "username";
+    public static final String EMAIL = "email";
+    public static final String PHONE_NUMBER = "phoneNumber";
+
+    /**
+     * Number of values the filter is sized for, per value present at build time, leaving room for
+     * the members registering until the next rebuild.
+     */
+    private static final int GROWTH_FACTOR = 2;
+
+    /**
+     * Smallest number of values the filter is sized for.
+     */
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.members.identity-filter.enabled:true}")
+    boolean enabled = true;
+
+    @Value("${app.members.identity-filter.false-positive-rate:0.01}")
+    double falsePositiveRate = 0.01;
+
+    @Value("${app.members.identity-filter.max-size:4MB}")
+    DataSize maxSize = DataSize.ofMegabytes(4);
+
+    /**
+     * The filter looked up; null until the first rebuild completes.
+     */
+    private volatile BloomFilter filter;
+
+    /**
+     * The filter a rebuild is filling; null when no rebuild is running. Values added meanwhile go to
+     * both filters, so none is lost whether the scan reads them or not.
+     */
+    private volatile BloomFilter building;
+
+    /**
+     * Constructs a new MemberIdentityFilter.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public MemberIdentityFilter(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Builds the filter in the background once the application is ready.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the filter periodically, picking up the members written by other nodes and outside
+     * the application since the last rebuild.
+     */
+    @Scheduled(initialDelayString = "${app.members.identity-filter.rebuild-interval:PT1H}",
+            fixedDelayString = "${app.members.identity-filter.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the filter from all members, sized for the current number of members.
+     *
+     * @return the number of members scanned
+     */
+    public synchronized long rebuild() {
+        long expected = Math.max(MIN_CAPACITY, mongoTemplate.estimatedCount(Member.class) * 3 * GROWTH_FACTOR);
+        BloomFilter rebuilt = new BloomFilter(expected, falsePositiveRate, maxSize.toBytes() * Byte.SIZE);
+        building = rebuilt;
+
+        long scanned = 0;
+        try {
+            Query query = new Query();
+            query.fields().include("username", "email", "phone_number");
+            query.cursorBatchSize(BATCH_SIZE);
+            try (Stream<Document> members = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Member.class))) {
+                for (Document member : (Iterable<Document>) members::iterator) {
+                    add(rebuilt, USERNAME, member.getString("username"));
+                    add(rebuilt, EMAIL, member.getString("email"));
+                    add(rebuilt, PHONE_NUMBER, member.getString("phone_number"));
+                    scanned++;
+                }
+            }
+            filter = rebuilt;
+        } finally {
+            building = null;
+        }
+        log.info("Built the member identity filter from {} members: {}", scanned, rebuilt.statistics());
+        return scanned;
+    }
+
+    /**
+     * Adds the identity fields of a member, once it is saved.
+     *
+     * @param member the member
+     */
+    public void add(Member member) {
+        if (!enabled) {
+            return;
+        }
+        // The filter being built is read first: if no rebuild is running by then, any rebuild that
+        // ran has already published its filter, and one starting later scans the saved member.
+        BloomFilter rebuilding = building;
+        for (BloomFilter target : new BloomFilter[]{rebuilding, filter}) {
+            if (target != null) {
+                add(target, USERNAME, member.getUsername());
+                add(target, EMAIL, member.getEmail());
+                add(target, PHONE_NUMBER, member.getPhoneNumber());
+            }
+        }
+    }
+
+    /**
+     * Tells whether a value may be held by a member.
+     *
+     * @param field the field, one of {@link #USERNAME}, {@link #EMAIL} and {@link #PHONE_NUMBER}
+     * @param value the value, may be null
+     * @return false if no member holds the value, true if one may hold it and it must be looked up
+     */
+    public boolean mightBeTaken(String field, String value) {
+        if (value == null) {
+            return false;
+        }
+        BloomFilter current = filter;
+        String key = key(field, value);
+        return !enabled || current == null || key == null || current.mightContain(key);
+    }
+
+    /**
+     * Describes the state of the filter and the heap it retains.
+     *
+     * @return statistics keyed by name
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        BloomFilter current = filter;
+        statistics.put("ready", current != null);
+        statistics.put("rebuilding", building != null);
+        statistics.put("maxBytes", maxSize.toBytes());
+        if (current != null) {
+            statistics.putAll(current.statistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Adds a value of a member to a filter.
+     *
+     * @param target the filter
+     * @param field  the field
+     * @param value  the value, may be null
+     */
+    private static void add(BloomFilter target, String field, String value) {
+        String key = value == null ? null : key(field, value);
+        if (key != null) {
+            target.add(key);
+        }
+    }
+
+    /**
+     * Builds the key of a value in the filter, which equal values regardless of case share.
+     * Lower-casing matches the case-insensitive collation for ASCII only; other values have no key
+     * and are always looked up.
+     *
+     * @param field the field
+     * @param value the value
+     * @return the key, or null if the value is not ASCII
+     */
+    private static String key(String field, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return null;
+            }
+        }
+        return field + ':' + value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,77 @@
+package org.johndoe.kitchensink.services;
+
+import com.mongodb.DBRef;
+import org.johndoe.kitchensink.documents.AuthorSnapshot;
+import org.johndoe.kitchensink.documents.Authored;
+import org.johndoe.kitchensink.documents.Member;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Resolves the member references of a whole result set at once. Documents that already carry
+ * an author snapshot are left alone; for the others, every distinct referenced member is loaded
+ * with a single $in query instead of one lookup per document.
+ */
+@Component
+public class MemberReferenceResolver {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs a new MemberReferenceResolver.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public MemberReferenceResolver(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Fills in the author snapshot of every document that lacks one. The snapshots are only
+     * set in memory; documents whose member no longer exists end up with no member at all.
+     *
+     * @param documents the documents about to be rendered
+     */
+    public void resolveAuthors(Collection<? extends Authored> documents) {
+        Map<String, List<Authored>> pendingByMemberId = new HashMap<>();
+        List<Object> memberIds = new ArrayList<>();
+
+        for (Authored document : documents) {
+            Member member = document.getMember();
+            if (document.getAuthor() != null || member == null) {
+                continue;
+            }
+            DBRef reference = member instanceof LazyLoadingProxy proxy ? proxy.toDBRef() : null;
+            if (reference != null) {
+                List<Authored> pending = pendingByMemberId.computeIfAbsent(reference.getId().toString(), id -> new ArrayList<>());
+                if (pending.isEmpty()) {
+                    memberIds.add(reference.getId());
+                }
+                pending.add(document);
+            } else {
+                document.setAuthor(AuthorSnapshot.of(member));
+            }
+        }
+        if (memberIds.isEmpty()) {
+            return;
+        }
+
+        for (Member member : mongoTemplate.find(new Query(where("_id").in(memberIds)), Member.class)) {
+            AuthorSnapshot snapshot = AuthorSnapshot.of(member);
+            for (Authored document : pendingByMemberId.remove(member.getId())) {
+                document.setAuthor(snapshot);
+            }
+        }
+        pendingByMemberId.values().forEach(orphans -> orphans.forEach(document -> document.setMember(null)));
+    }
+}
@@ -1,23 +1,34 @@
 package org.johndoe.kitchensink.services;
 
 import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.dtos.CursorPage;
+import org.johndoe.kitchensink.dtos.FieldSelection;
+import org.johndoe.kitchensink.dtos.MemberConflicts;
 import org.johndoe.kitchensink.dtos.MemberDto;
+import org.johndoe.kitchensink.events.MemberUpdatedEvent;
 import org.johndoe.kitchensink.exceptions.UserNotFoundException;
 import org.johndoe.kitchensink.exceptions.ValidationException;
 import org.johndoe.kitchensink.repositories.MemberRepository;
 import org.johndoe.kitchensink.utils.ApplicationConstants;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.johndoe.kitchensink.utils.UtilityMethods;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.johndoe.kitchensink.dtos.MemberDto.Mapper.fromEntity;
 import static org.johndoe.kitchensink.dtos.MemberDto.Mapper.toEntity;
@@ -39,13 +50,65 @@ public class MemberService {
      */
     private final MemberRepository memberRepository;
 
+    /**
+     * Publisher for member lifecycle events.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Name of the sequence member IDs are allocated from.
+     */
+    static final String MEMBER_ID_SEQUENCE = "member_id";
+
+    /**
+     * Number of member IDs tried when the allocated ones turn out to be taken.
+     */
+    static final int MAX_MEMBER_ID_ATTEMPTS = 3;
+
+    /**
+     * Request attribute holding the identity conflicts found during the current request.
+     */
+    private static final String CONFLICTS_ATTRIBUTE = MemberService.class.getName() + ".conflicts";
+
+    /**
+     * Service providing estimated counts for paginated listings.
+     */
+    private final CollectionCountService collectionCountService;
+
+    /**
+     * Service allocating member IDs.
+     */
+    private final SequenceService sequenceService;
+
+    /**
+     * Filter answering most availability checks without a query.
+     */
+    private final MemberIdentityFilter memberIdentityFilter;
+
+    /**
+     * Cache of members by member ID, username and email.
+     */
+    private final MemberCache memberCache;
+
     /**
      * Constructs a new MemberService with the given MemberRepository.
      *
-     * @param memberRepository the member repository
+     * @param memberRepository       the member repository
+     * @param eventPublisher         the application event publisher
+     * @param collectionCountService the collection count service
+     * @param sequenceService        the sequence service
+     * @param memberIdentityFilter   the member identity filter
+     * @param memberCache            the member cache
      */
-    public MemberService(MemberRepository memberRepository) {
+    public MemberService(MemberRepository memberRepository, ApplicationEventPublisher eventPublisher,
+                         CollectionCountService collectionCountService, SequenceService sequenceService,
+                         MemberIdentityFilter memberIdentityFilter, MemberCache memberCache) {
         this.memberRepository = memberRepository;
+        this.eventPublisher = eventPublisher;
+        this.collectionCountService = collectionCountService;
+        this.sequenceService = sequenceService;
+        this.memberIdentityFilter = memberIdentityFilter;
+        this.memberCache = memberCache;
     }
 
     /**
@@ -55,25 +118,68 @@ public class MemberService {
      * @return the member DTO
      * @throws UserNotFoundException if the member is not found
      */
-    @Cacheable(value = "members", key = "#id", unless = "#result == null")
     public MemberDto findMemberById(Long id) {
-        return fromEntity(memberRepository.findByMemberId(id).orElseThrow(() -> new UserNotFoundException(MEMBER_NOT_FOUND)));
+        return memberCache.get(id, memberRepository::findByMemberId);
     }
 
     /**
-     * Creates a new member.
+     * Creates a new member. Nothing cached is affected, as lookups of missing members are not cached.
      *
      * @param memberDto the member DTO
      * @return the created member DTO
      * @throws ValidationException if validation fails
      */
-    @CacheEvict(value = "members", allEntries = true)
     public MemberDto createMember(MemberDto memberDto) {
         validateMember(memberDto);
 
-        Member lastMember = memberRepository.findTopByOrderByMemberIdDesc().orElse(new Member());
-        memberDto.setMemberId((lastMember.getMemberId() == null) ? 1 : lastMember.getMemberId() + 1);
-        return fromEntity(memberRepository.save(toEntity(memberDto)));
+        for (int attempt = 1; ; attempt++) {
+            memberDto.setMemberId(nextMemberId());
+            try {
+                Member saved = memberRepository.save(toEntity(memberDto));
+                memberIdentityFilter.add(saved);
+                return fromEntity(saved);
+            } catch (DuplicateKeyException e) {
+                // The unique member ID index is the safety net should the sequence fall behind the
+                // members, e.g. after the counters were restored from an older backup.
+                if (attempt == MAX_MEMBER_ID_ATTEMPTS || !String.valueOf(e.getMessage()).contains(Member.MEMBER_ID_INDEX)) {
+                    throw toConflict(e);
+                }
+                sequenceService.reset(MEMBER_ID_SEQUENCE);
+            }
+        }
+    }
+
+    /**
+     * Reports a duplicate key error on an identity field like a conflict found by validation. Such
+     * errors are raised when another member took the value after it was checked.
+     *
+     * @param e the duplicate key error
+     * @return the validation error naming the fields taken, or the error itself if it is on
+     * another index
+     */
+    private static RuntimeException toConflict(DuplicateKeyException e) {
+        String message = String.valueOf(e.getMessage());
+        List<String> validationErrors = new ArrayList<>();
+        if (message.contains(Member.USERNAME_INDEX)) {
+            validationErrors.add("username should be unique");
+        }
+        if (message.contains(Member.EMAIL_INDEX)) {
+            validationErrors.add("email should be unique");
+        }
+        if (message.contains(Member.PHONE_NUMBER_INDEX)) {
+            validationErrors.add("phone number should be unique");
+        }
+        return validationErrors.isEmpty() ? e : new ValidationException(validationErrors);
+    }
+
+    /**
+     * Allocates the next member ID. The sequence starts above the highest member ID in use.
+     *
+     * @return a member ID no other member gets
+     */
+    private long nextMemberId() {
+        return sequenceService.next(MEMBER_ID_SEQUENCE, () -> memberRepository.findTopByOrderByMemberIdDesc()
+                .map(Member::getMemberId).orElse(0L));
     }
 
     /**
@@ -84,11 +190,15 @@ public class MemberService {
      */
     private void validateMember(MemberDto memberDto) {
         List<String> validationErrors = new ArrayList<>();
-        if (emailAlreadyExists(memberDto.getEmail())) {
+        MemberConflicts conflicts = findConflicts(memberDto);
+        if (conflicts.username()) {
+            validationErrors.add("username should be unique");
+        }
+        if (conflicts.email()) {
             validationErrors.add("email should be unique");
         }
 
-        if (phoneAlreadyExists(memberDto.getPhoneNumber())) {
+        if (conflicts.phoneNumber()) {
             validationErrors.add("phone number should be unique");
         }
         if (!memberDto.getPasswordAsString().equals(memberDto.getRepeatPasswordAsString())) {
@@ -100,23 +210,42 @@ public class MemberService {
     }
 
     /**
-     * Checks if the email already exists.
+     * Tells which identity fields of a member other members already hold, with one query. The
+     * identity filter is not consulted: it only knows the members written by this node since it
+     * was built, and a value it missed would slip past validation. The result is kept for the rest
+     * of the current request, so that the request validation and the registration itself share it.
      *
-     * @param email the email
-     * @return true if the email exists, false otherwise
+     * @param memberDto the member DTO
+     * @return the fields that are taken
      */
-    private boolean emailAlreadyExists(String email) {
-        return memberRepository.findByEmail(email).isPresent();
+    public MemberConflicts findConflicts(MemberDto memberDto) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(CONFLICTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CheckedIdentity checked
+                && checked.isOf(memberDto)) {
+            return checked.conflicts();
+        }
+        MemberConflicts conflicts = memberRepository.findConflicts(memberDto.getUsername(), memberDto.getEmail(), memberDto.getPhoneNumber());
+        if (request != null) {
+            request.setAttribute(CONFLICTS_ATTRIBUTE, new CheckedIdentity(memberDto.getUsername(), memberDto.getEmail(),
+                    memberDto.getPhoneNumber(), conflicts), RequestAttributes.SCOPE_REQUEST);
+        }
+        return conflicts;
     }
 
     /**
-     * Checks if the phone number already exists.
+     * Identity fields checked during the current request, with the conflicts found.
      *
-     * @param phoneNumber the phone number
-     * @return true if the phone number exists, false otherwise
+     * @param username    the username checked
+     * @param email       the email checked
+     * @param phoneNumber the phone number checked
+     * @param conflicts   the fields found taken
      */
-    private boolean phoneAlreadyExists(String phoneNumber) {
-        return memberRepository.findByPhoneNumber(phoneNumber).isPresent();
+    private record CheckedIdentity(String username, String email, String phoneNumber, MemberConflicts conflicts) {
+
+        boolean isOf(MemberDto memberDto) {
+            return Objects.equals(username, memberDto.getUsername()) && Objects.equals(email, memberDto.getEmail())
+                    && Objects.equals(phoneNumber, memberDto.getPhoneNumber());
+        }
     }
 
     /**
@@ -128,8 +257,60 @@ public class MemberService {
         return findAllMembersAsEntity().stream().map((MemberDto.Mapper::fromEntity)).toList();
     }
 
-    public Page<MemberDto> findAllMembers(Pageable page) {
-        return memberRepository.findAll(page).map(MemberDto.Mapper::fromEntity);
+    /**
+     * Finds a slice of members, fetching and mapping only the selected fields. No count is run;
+     * see {@link #countMembers(boolean)} for the total.
+     *
+     * @param page   the page to fetch
+     * @param fields the fields to populate
+     * @return the slice of member DTOs
+     */
+    public Slice<MemberDto> findAllMembers(Pageable page, FieldSelection fields) {
+        return memberRepository.findSlice(page, MemberDto.Mapper.toEntityProperties(fields))
+                .map(member -> MemberDto.Mapper.fromEntity(member, fields));
+    }
+
+    /**
+     * Counts the members for a paginated listing.
+     *
+     * @param exact whether to count exactly, which scans the collection, instead of estimating
+     * @return the number of members
+     */
+    public long countMembers(boolean exact) {
+        return exact ? memberRepository.count() : collectionCountService.estimatedCount(Member.class);
+    }
+
+    /**
+     * Finds the page of members that follows the given cursor, ordered by member ID.
+     *
+     * @param cursor the cursor returned with the previous page, or null/blank for the first page
+     * @param size   the page size
+     * @param fields the fields to populate
+     * @return the members on the page and the cursor of the next one
+     * @throws ValidationException if the cursor is malformed
+     */
+    public CursorPage<MemberDto> findMembersByCursor(String cursor, int size, FieldSelection fields) {
+        long lastMemberId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                lastMemberId = Long.parseLong(UtilityMethods.decodeCursor(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+        }
+
+        List<Member> members;
+        if (fields.isAll()) {
+            members = memberRepository.findByMemberIdGreaterThanOrderByMemberIdAsc(lastMemberId, Limit.of(size + 1));
+        } else {
+            // The member ID is the cursor key, so it is fetched even when it is not rendered.
+            List<String> properties = Stream.concat(MemberDto.Mapper.toEntityProperties(fields).stream(), Stream.of("memberId")).distinct().toList();
+            members = memberRepository.findMembersAfter(lastMemberId, size + 1, properties);
+        }
+        boolean hasNext = members.size() > size;
+        List<Member> page = hasNext ? members.subList(0, size) : members;
+        String nextCursor = hasNext ? UtilityMethods.encodeCursor(String.valueOf(page.get(page.size() - 1).getMemberId())) : null;
+        return new CursorPage<>(page.stream().map(member -> MemberDto.Mapper.fromEntity(member, fields)).toList(), nextCursor);
     }
 
     /**
@@ -148,9 +329,8 @@ public class MemberService {
      * @return the member DTO
      * @throws UserNotFoundException if the member is not found
      */
-    @Cacheable(value = "members", key = "#email")
     public MemberDto findMemberByEmail(String email) {
-        return fromEntity(memberRepository.findByEmail(email).orElseThrow(() -> new UserNotFoundException(MEMBER_NOT_FOUND)));
+        return memberCache.getByEmail(email, () -> memberRepository.findByEmail(email), memberRepository::findByMemberId);
     }
 
     /**
@@ -171,15 +351,25 @@ public class MemberService {
      * @return the member DTO
      * @throws UserNotFoundException if the member is not found
      */
-    @Cacheable(value = "members", key = "#name")
     public MemberDto findMemberByName(String name) {
-        return fromEntity(findMemberEntityByName(name));
+        return memberCache.getByUsername(name, () -> memberRepository.findByUsername(name), memberRepository::findByMemberId);
     }
 
     public Member findMemberEntityByName(String name) {
         return memberRepository.findByUsername(name).orElseThrow(() -> new UserNotFoundException(MEMBER_NOT_FOUND));
     }
 
+    /**
+     * Fetches only the last update date of a member, so that a client holding the current
+     * profile can be answered without loading it.
+     *
+     * @param name the username of the user
+     * @return the last update date, or empty if the member does not exist or was never updated
+     */
+    public Optional<LocalDateTime> findMemberUpdatedAt(String name) {
+        return memberRepository.findUpdatedAtByUsername(name).map(Member::getUpdatedAt);
+    }
+
     /**
      * Updates a member.
      *
@@ -188,7 +378,6 @@ public class MemberService {
      * @return the updated member DTO
      * @throws UserNotFoundException if the member is not found
      */
-    @CacheEvict(value = "members", key = "#id")
     @Transactional
     public MemberDto updateMember(Long id, MemberDto member) {
 
@@ -205,7 +394,6 @@ public class MemberService {
      * @return the updated member DTO
      * @throws UserNotFoundException if the member is not found
      */
-    @CacheEvict(value = "members", allEntries = true)
     public MemberDto updateMember(String username, MemberDto member) {
 
         validateEmailOrPhoneNumberForAnotherUser(member);
@@ -227,19 +415,30 @@ public class MemberService {
     }
 
     /**
-     * Saves a member.
+     * Saves a member, then evicts its cached entry and aliases, including the email it had before.
      *
      * @param member       the member DTO
      * @param memberEntity the member entity
      * @return the saved member DTO
      */
     private MemberDto saveMember(MemberDto member, Member memberEntity) {
+        String previousEmail = memberEntity.getEmail();
         if (member.getFirstName() != null) memberEntity.setFirstName(member.getFirstName());
         if (member.getLastName() != null) memberEntity.setLastName(member.getLastName());
         if (member.getEmail() != null) memberEntity.setEmail(member.getEmail());
         if (member.getPhoneNumber() != null) memberEntity.setPhoneNumber(member.getPhoneNumber());
 
-        return fromEntity(memberRepository.save(memberEntity));
+        Member saved;
+        try {
+            saved = memberRepository.save(memberEntity);
+        } catch (DuplicateKeyException e) {
+            throw toConflict(e);
+        }
+        memberCache.evict(saved);
+        memberCache.evictEmail(previousEmail);
+        memberIdentityFilter.add(saved);
+        eventPublisher.publishEvent(new MemberUpdatedEvent(saved));
+        return fromEntity(saved);
     }
 
     /**
@@ -247,34 +446,9 @@ public class MemberService {
      *
      * @param id the member ID
      */
-    @CacheEvict(value = "members", key = "#id")
     public void deleteMember(Long id) {
         memberRepository.deleteByMemberId(id);
-    }
-
-    /**
-     * Checks if a value exists as an email or phone number.
-     *
-     * @param value the value
-     * @return true if the value exists, false otherwise
-     */
-    public boolean doesValueExistAsEmailOrPhoneNumber(String value) {
-        return memberRepository.findByEmail(value).isPresent() || memberRepository.findByPhoneNumber(value).isPresent();
-    }
-
-    /**
-     * Checks if a value exists as a username.
-     *
-     * @param value the value
-     * @return true if the value exists, false otherwise
-     */
-    public boolean doesValueExistsAsUsername(String value) {
-        try {
-            findMemberByName(value);
-        } catch (UserNotFoundException e) {
-            return false;
-        }
-        return true;
+        memberCache.evict(id);
     }
 
     /**
@@ -298,10 +472,23 @@ public class MemberService {
 
     public MemberDto assignAdminRoleToUser(Member member) {
         member.setUserRole(ApplicationConstants.ROLES.ADMIN.name().toLowerCase());
-        return fromEntity(memberRepository.save(member));
+        Member saved = memberRepository.save(member);
+        memberCache.evict(saved);
+        eventPublisher.publishEvent(new MemberUpdatedEvent(saved));
+        return fromEntity(saved);
     }
 
+    /**
+     * Checks whether a username is still free. Most free usernames are answered by the identity
+     * filter; only the ones it may have seen are looked up.
+     *
+     * @param username the username
+     * @return a Mono emitting true if no member holds the username
+     */
     public Mono<Boolean> checkUsernameAvailability(String username) {
+        if (!memberIdentityFilter.mightBeTaken(MemberIdentityFilter.USERNAME, username)) {
+            return Mono.just(true);
+        }
         return Mono.just(memberRepository.findByUsername(username).isEmpty());
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package org.johndoe.kitchensink.services;
+
+import org.johndoe.kitchensink.config.CoalescingCache;
+import org.johndoe.kitchensink.dtos.CommentDto;
+import org.johndoe.kitchensink.dtos.PostDto;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the cached posts in step with their comment threads. New comments are written through
+ * into the cached post instead of evicting it, so a hot thread stays warm while it is being
+ * commented on.
+ * <p>
+ * Each cached post carries the comments version of the post it was built from. An update is only
+ * applied on top of the version right before it; on any gap, e.g. a concurrent writer landing in
+ * the other order or a comment being deleted, the entry is evicted and rebuilt on the next read.
+ */
+@Component
+public class PostCacheWriter {
+
+    /**
+     * Name of the cache holding posts by ID.
+     */
+    public static final String CACHE_NAME = "posts";
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Constructs a new PostCacheWriter.
+     *
+     * @param cacheManager the cache manager
+     */
+    public PostCacheWriter(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Adds a new comment to the cached post, if it is cached. The update is atomic with respect to
+     * other writers of the same entry, and cancels any refresh of it in flight, which would
+     * otherwise store the snapshot it read before the comment.
+     *
+     * @param postId       the ID of the post
+     * @param comment      the new comment
+     * @param commentCount the comment count of the post after the comment was added
+     * @param version      the comments version of the post after the comment was added
+     */
+    public void appendComment(String postId, CommentDto comment, long commentCount, long version) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        if (!(cache instanceof CoalescingCache coalescingCache)) {
+            cache.evict(postId);
+            return;
+        }
+        coalescingCache.computeIfPresent(postId, (key, cached) -> {
+            if (!(cached instanceof PostDto post) || post.getCommentsVersion() == null
+                    || post.getCommentsVersion() != version - 1) {
+                return null;
+            }
+            return withComment(post, comment, commentCount, version);
+        });
+    }
+
+    /**
+     * Evicts a post from the cache, for changes that cannot be applied incrementally.
+     *
+     * @param postId the ID of the post
+     */
+    public void evict(String postId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.evict(postId);
+        }
+    }
+
+    /**
+     * Copies a cached post with the new comment at the head of its first page. Cached values are
+     * shared with concurrent readers, so they are never modified in place.
+     *
+     * @param post         the cached post
+     * @param comment      the new comment
+     * @param commentCount the new comment count
+     * @param version      the new comments version
+     * @return the updated copy
+     */
+    private static PostDto withComment(PostDto post, CommentDto comment, long commentCount, long version) {
+        List<CommentDto> comments = new ArrayList<>(PostService.COMMENT_PAGE_SIZE + 1);
+        comments.add(comment);
+        if (post.getComments() != null) {
+            // The post may have been read after the comment was saved but before its count was.
+            post.getComments().stream().filter(existing -> !existing.getId().equals(comment.getId())).forEach(comments::add);
+        }
+        String nextCursor = post.getCommentsNextCursor();
+        if (comments.size() > PostService.COMMENT_PAGE_SIZE) {
+            comments = comments.subList(0, PostService.COMMENT_PAGE_SIZE);
+            CommentDto last = comments.get(comments.size() - 1);
+            nextCursor = PostService.commentCursor(last.getCreatedAt(), last.getId());
+        }
+
+        PostDto updated = new PostDto();
+        updated.setId(post.getId());
+        updated.setTitle(post.getTitle());
+        updated.setContent(post.getContent());
+        updated.setMember(post.getMember());
+        updated.setCreatedAt(post.getCreatedAt());
+        updated.setComments(List.copyOf(comments));
+        updated.setCommentCount(commentCount);
+        updated.setCommentsNextCursor(nextCursor);
+        updated.setCommentsVersion(version);
+        return updated;
+    }
+}
@@ -0,0 +1,183 @@
+package org.johndoe.kitchensink.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.dtos.CommentDto;
+import org.johndoe.kitchensink.dtos.PostDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Exports all posts with their comments as NDJSON, one post per line.
+ * <p>
+ * Posts are read through a cursor in chunks of {@link #CHUNK_SIZE}, and the comments of each chunk
+ * are streamed through a second cursor, ordered by post, and written as they arrive, their missing
+ * authors resolved {@link #COMMENT_BATCH_SIZE} comments at a time. Only one chunk of posts and one
+ * batch of comments are held at a time, so the heap used depends neither on the size of the
+ * collection nor on the length of the threads. The next chunk is only read once the previous one
+ * has been written to the client, so a slow client slows the export down instead of making it
+ * buffer.
+ */
+@Service
+public class PostExportService {
+
+    /**
+     * Logger for PostExportService.
+     */
+    private static final Logger log = LoggerFactory.getLogger(PostExportService.class);
+
+    /**
+     * Number of posts read, enriched and written together.
+     */
+    static final int CHUNK_SIZE = 500;
+
+    /**
+     * Number of comments whose missing authors are resolved together.
+     */
+    static final int COMMENT_BATCH_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final MemberReferenceResolver memberReferenceResolver;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new PostExportService.
+     *
+     * @param mongoTemplate           the mongo template
+     * @param memberReferenceResolver the resolver of missing author snapshots
+     * @param objectMapper            the object mapper used for the response bodies
+     */
+    public PostExportService(MongoTemplate mongoTemplate, MemberReferenceResolver memberReferenceResolver, ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.memberReferenceResolver = memberReferenceResolver;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every post, ordered by ID, with its comments oldest first. The output stream is
+     * flushed after every chunk and left open.
+     *
+     * @param out the stream to write to
+     * @return the number of posts written
+     * @throws IOException if the stream cannot be written to, e.g. because the client went away
+     */
+    public long exportPosts(OutputStream out) throws IOException {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().exclude("commentIds");
+        query.cursorBatchSize(CHUNK_SIZE);
+
+        long written = 0;
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are terminated explicitly rather than separated by the default space.
+            generator.setRootValueSeparator(null);
+            Iterator<Post> cursor = posts.iterator();
+            List<Post> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (cursor.hasNext()) {
+                chunk.add(cursor.next());
+                if (chunk.size() == CHUNK_SIZE || !cursor.hasNext()) {
+                    written += writeChunk(chunk, generator);
+                    chunk.clear();
+                }
+            }
+        }
+        log.info("Exported {} posts", written);
+        return written;
+    }
+
+    /**
+     * Writes a chunk of posts, one per line, streaming the comments of each post into it. The
+     * comments come ordered by post ID, so the posts of the chunk are written in that order too,
+     * which is the order they were read in unless their IDs mix types.
+     *
+     * @param posts     the posts of the chunk
+     * @param generator the generator to write to
+     * @return the number of posts written
+     * @throws IOException if the posts cannot be written
+     */
+    private int writeChunk(List<Post> posts, JsonGenerator generator) throws IOException {
+        memberReferenceResolver.resolveAuthors(posts);
+        posts.sort(Comparator.comparing(Post::getId));
+
+        Query query = new Query(where("postId").in(posts.stream().map(Post::getId).toList()))
+                .with(Sort.by(Sort.Direction.ASC, "postId", "createdAt"))
+                .allowDiskUse(true);
+        query.cursorBatchSize(COMMENT_BATCH_SIZE);
+        try (Stream<Comment> stream = mongoTemplate.stream(query, Comment.class)) {
+            Iterator<Comment> comments = stream.iterator();
+            Comment next = comments.hasNext() ? comments.next() : null;
+            List<Comment> pending = new ArrayList<>(COMMENT_BATCH_SIZE);
+            for (Post post : posts) {
+                writePostFields(post, generator);
+                generator.writeArrayFieldStart("comments");
+                while (next != null && post.getId().equals(next.getPostId())) {
+                    pending.add(next);
+                    if (pending.size() == COMMENT_BATCH_SIZE) {
+                        writeComments(pending, generator);
+                    }
+                    next = comments.hasNext() ? comments.next() : null;
+                }
+                writeComments(pending, generator);
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        generator.flush();
+        return posts.size();
+    }
+
+    /**
+     * Opens the object of a post and writes its fields, except the comments.
+     *
+     * @param post      the post
+     * @param generator the generator to write to
+     * @throws IOException if the post cannot be written
+     */
+    private void writePostFields(Post post, JsonGenerator generator) throws IOException {
+        ObjectNode fields = objectMapper.valueToTree(PostDto.Mapper.fromEntityWithComments(post, null));
+        generator.writeStartObject();
+        for (Map.Entry<String, JsonNode> field : fields.properties()) {
+            generator.writeFieldName(field.getKey());
+            generator.writeTree(field.getValue());
+        }
+    }
+
+    /**
+     * Resolves the missing authors of a batch of comments, writes the comments and clears the batch.
+     *
+     * @param comments  the comments
+     * @param generator the generator to write to
+     * @throws IOException if the comments cannot be written
+     */
+    private void writeComments(List<Comment> comments, JsonGenerator generator) throws IOException {
+        if (comments.isEmpty()) {
+            return;
+        }
+        memberReferenceResolver.resolveAuthors(comments);
+        for (Comment comment : comments) {
+            generator.writeObject(CommentDto.Mapper.fromEntity(comment));
+        }
+        comments.clear();
+    }
+}
@@ -0,0 +1,250 @@
+package org.johndoe.kitchensink.services;
+
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.utils.InvertedIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-memory index of post titles and content, serving search-as-you-type suggestions
+ * without a round trip to the server. It is disabled by default, as every node holds the whole
+ * index; enable it with {@code app.search.in-memory.enabled}.
+ * <p>
+ * The index is built from a streaming scan of the posts once the application is ready, and kept
+ * current by {@link PostService} as posts are created and deleted. Changes made on other nodes
+ * or directly in the database are picked up by the next rebuild.
+ * <p>
+ * The heap the index retains is bounded by {@code app.search.in-memory.max-size}. A rebuild that
+ * exceeds it is abandoned, and an index that outgrows it is dropped, so searches fall back to the
+ * server until the budget is raised and the index is rebuilt.
+ */
+@Service
+public class PostSearchIndex {
+
+    /**
+     * Logger for PostSearchIndex.
+     */
+    private static final Logger log = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    /**
+     * Number of posts fetched per batch during a rebuild.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${app.search.in-memory.enabled:false}")
+    boolean enabled;
+
+    @Value("${app.search.in-memory.max-size:64MB}")
+    DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * The index searched; null until the first rebuild completes. Guarded by {@link #lock}.
+     */
+    private InvertedIndex index;
+
+    /**
+     * Changes made while a rebuild is scanning, replayed on the new index before it replaces the
+     * current one; null when no rebuild is running. Guarded by {@link #lock}.
+     */
+    private List<Predicate<InvertedIndex>> pendingChanges;
+
+    /**
+     * Whether the last rebuild, or a change since, exceeded the budget. Guarded by {@link #lock}.
+     */
+    private boolean overBudget;
+
+    /**
+     * Constructs a new PostSearchIndex.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public PostSearchIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Builds the index in the background once the application is ready.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from all posts. The scan runs without holding the lock, so searches are
+     * served from the previous index meanwhile, and changes made during the scan are applied to
+     * the new index before it is swapped in. If the index exceeds its budget, it is not swapped in,
+     * and the previous index is dropped.
+     *
+     * @return the number of posts indexed, or 0 if the index exceeds its budget
+     */
+    public int rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                log.info("Post search index rebuild already running");
+                return 0;
+            }
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        InvertedIndex rebuilt = new InvertedIndex(maxSize.toBytes());
+        boolean withinBudget = true;
+        try {
+            Query query = new Query();
+            query.fields().include("title", "content");
+            query.cursorBatchSize(BATCH_SIZE);
+            try (Stream<Document> posts = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Post.class))) {
+                Iterator<Document> iterator = posts.iterator();
+                while (withinBudget && iterator.hasNext()) {
+                    Document post = iterator.next();
+                    withinBudget = rebuilt.add(post.get("_id").toString(), post.getString("title"), post.getString("content"));
+                }
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Predicate<InvertedIndex> change : pendingChanges) {
+                withinBudget &= change.test(rebuilt);
+            }
+            pendingChanges = null;
+            overBudget = !withinBudget;
+            index = withinBudget ? rebuilt : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!withinBudget) {
+            log.warn("Post search index exceeds its budget of {}; searches are served by the server", maxSize);
+            return 0;
+        }
+        log.info("Indexed {} posts for search", rebuilt.size());
+        return rebuilt.size();
+    }
+
+    /**
+     * Adds a post to the index, or replaces it if it is already indexed.
+     *
+     * @param postId  the ID of the post
+     * @param title   the title of the post
+     * @param content the content of the post
+     */
+    public void add(String postId, String title, String content) {
+        apply(index -> index.add(postId, title, content));
+    }
+
+    /**
+     * Removes a post from the index.
+     *
+     * @param postId the ID of the post
+     */
+    public void remove(String postId) {
+        apply(index -> {
+            index.remove(postId);
+            return true;
+        });
+    }
+
+    /**
+     * Finds the posts best matching a partially typed query.
+     *
+     * @param query the query; its last word is matched as a prefix
+     * @param limit the maximum number of results
+     * @return the hits, best first, or empty if the index is disabled or not built yet
+     */
+    public Optional<List<InvertedIndex.Hit>> search(String query, int limit) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return index == null ? Optional.empty() : Optional.of(index.search(query, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Describes the state of the index and the heap it is estimated to retain.
+     *
+     * @return statistics keyed by name
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        lock.readLock().lock();
+        try {
+            statistics.put("ready", index != null);
+            statistics.put("rebuilding", pendingChanges != null);
+            statistics.put("overBudget", overBudget);
+            statistics.put("maxBytes", maxSize.toBytes());
+            if (index != null) {
+                statistics.putAll(index.statistics());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return statistics;
+    }
+
+    /**
+     * Applies a change to the current index, and records it for the rebuild in progress if any.
+     * The current index is dropped if the change is refused for exceeding the budget.
+     *
+     * @param change the change, returning false if the index refused it
+     */
+    private void apply(Predicate<InvertedIndex> change) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (index != null && !change.test(index)) {
+                log.warn("Post search index exceeds its budget of {}; searches are served by the server", maxSize);
+                index = null;
+                overBudget = true;
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,30 +1,47 @@
 package org.johndoe.kitchensink.services;
 
+import com.mongodb.MongoExecutionTimeoutException;
+import org.johndoe.kitchensink.documents.Authored;
 import org.johndoe.kitchensink.documents.Comment;
 import org.johndoe.kitchensink.documents.Member;
 import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.documents.PostFeedEntry;
 import org.johndoe.kitchensink.dtos.CommentDto;
+import org.johndoe.kitchensink.dtos.CursorPage;
+import org.johndoe.kitchensink.dtos.FieldSelection;
 import org.johndoe.kitchensink.dtos.PostDto;
+import org.johndoe.kitchensink.events.CommentAddedEvent;
 import org.johndoe.kitchensink.exceptions.ApplicationException;
 import org.johndoe.kitchensink.exceptions.UserNotFoundException;
+import org.johndoe.kitchensink.exceptions.ValidationException;
 import org.johndoe.kitchensink.repositories.CommentRepository;
 import org.johndoe.kitchensink.repositories.MemberRepository;
 import org.johndoe.kitchensink.repositories.PostRepository;
 import org.johndoe.kitchensink.utils.ApplicationConstants;
+import org.johndoe.kitchensink.utils.UtilityMethods;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing posts.
@@ -33,48 +50,410 @@ import java.util.stream.Collectors;
 @Service
 public class PostService {
 
+    /**
+     * Upper bound for the number of comments embedded per post in the feed.
+     */
+    public static final int MAX_COMMENT_PREVIEW = 20;
+
+    /**
+     * Number of comments embedded in a single post, which bounds the size of its cache entry.
+     */
+    public static final int COMMENT_PAGE_SIZE = 20;
+
+    /**
+     * Upper bound for the page size of a comment thread.
+     */
+    public static final int MAX_COMMENT_PAGE_SIZE = 100;
+
+    /**
+     * Largest page size accepted for search results.
+     */
+    public static final int MAX_SEARCH_PAGE_SIZE = 50;
+
+    /**
+     * Longest search query accepted, in characters.
+     */
+    static final int MAX_SEARCH_QUERY_LENGTH = 200;
+
+    /**
+     * Name of the cache holding the version of the post listings.
+     */
+    public static final String VERSION_CACHE_NAME = "postsVersion";
+
+    /**
+     * Fields of the posts returned by a search; their comments are not loaded.
+     */
+    private static final FieldSelection SEARCH_FIELDS = FieldSelection.of("id", "title", "content", "member", "createdAt", "commentCount");
+
     private final MemberRepository memberRepository;
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
+    private final MemberReferenceResolver memberReferenceResolver;
+    private final CollectionCountService collectionCountService;
+    private final PostCacheWriter postCacheWriter;
+    private final PostSearchIndex postSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.search.max-time:PT1S}")
+    private Duration searchMaxTime = Duration.ofSeconds(1);
 
-    public PostService(MemberRepository memberRepository, PostRepository postRepository, CommentRepository commentRepository) {
+    public PostService(MemberRepository memberRepository, PostRepository postRepository, CommentRepository commentRepository,
+                       MemberReferenceResolver memberReferenceResolver, CollectionCountService collectionCountService,
+                       PostCacheWriter postCacheWriter, PostSearchIndex postSearchIndex,
+                       ApplicationEventPublisher eventPublisher) {
         this.memberRepository = memberRepository;
         this.postRepository = postRepository;
         this.commentRepository = commentRepository;
+        this.memberReferenceResolver = memberReferenceResolver;
+        this.collectionCountService = collectionCountService;
+        this.postCacheWriter = postCacheWriter;
+        this.postSearchIndex = postSearchIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Fetches all posts along with their associated comments.
+     * Comments and any unresolved authors for the whole page are each loaded with a single
+     * query, so the number of round trips stays constant regardless of the page size.
+     *
+     * Only the selected fields are fetched and mapped, and comments are not loaded at all unless selected.
+     * No count is run; see {@link #countPosts(boolean)} for the total.
+     *
+     * @param pageable the page to fetch
+     * @param fields   the fields to populate
+     * @return a slice of PostDto
+     */
+    public Slice<PostDto> getAllPosts(Pageable pageable, FieldSelection fields) {
+        Slice<Post> posts = postRepository.findSlice(pageable, PostDto.Mapper.toEntityProperties(fields));
+        Map<String, List<CommentDto>> commentsByPost = loadCommentsAndAuthors(posts.getContent(), fields);
+
+        return posts.map(post -> PostDto.Mapper.fromEntityWithComments(post, commentsByPost.getOrDefault(post.getId(), new ArrayList<>()), fields));
+    }
+
+    /**
+     * Fetches the page of posts that follows the given cursor, newest first.
+     *
+     * @param cursor the cursor returned with the previous page, or null/blank for the first page
+     * @param size   the page size
+     * @param fields the fields to populate
+     * @return the posts on the page and the cursor of the next one
+     */
+    public CursorPage<PostDto> getPostsByCursor(String cursor, int size, FieldSelection fields) {
+        LocalDateTime createdAt = null;
+        String postId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] keys = UtilityMethods.decodeCursor(cursor, 2);
+            createdAt = parseCursorDate(keys[0]);
+            postId = keys[1];
+        }
+
+        List<String> properties = PostDto.Mapper.toEntityProperties(fields);
+        if (properties != null) {
+            // The creation date is the cursor key, so it is fetched even when it is not rendered.
+            properties = Stream.concat(properties.stream(), Stream.of("createdAt")).distinct().toList();
+        }
+        List<Post> posts = postRepository.findPostsBefore(createdAt, postId, size + 1, properties);
+        boolean hasNext = posts.size() > size;
+        List<Post> page = hasNext ? posts.subList(0, size) : posts;
+        Map<String, List<CommentDto>> commentsByPost = loadCommentsAndAuthors(page, fields);
+
+        List<PostDto> content = page.stream()
+                .map(post -> PostDto.Mapper.fromEntityWithComments(post, commentsByPost.getOrDefault(post.getId(), new ArrayList<>()), fields))
+                .toList();
+        Post last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String nextCursor = hasNext && last.getCreatedAt() != null
+                ? UtilityMethods.encodeCursor(last.getCreatedAt().toString(), last.getId())
+                : null;
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    /**
+     * Searches the title and content of the posts, most relevant first, and returns the page that
+     * follows the given cursor. Matching goes through the text index and pages seek on
+     * {@code (score, _id)}, so no page skips over earlier results. The server aborts searches that
+     * exceed {@code app.search.max-time}, which bounds the latency of very broad queries.
      *
-     * @return List of PostDto
+     * @param terms  the search terms; phrases may be quoted and terms excluded with a leading {@code -}
+     * @param cursor the cursor returned with the previous page, or null/blank for the first page
+     * @param size   the page size, capped at {@link #MAX_SEARCH_PAGE_SIZE}
+     * @return the matching posts, each carrying its score, and the cursor of the next page
+     * @throws ValidationException if the query is blank or too long, or the cursor is invalid
      */
-    public Page<PostDto> getAllPosts(Pageable pageable) {
-        return postRepository.findAll(pageable)
-                .map(post -> {
-                    List<CommentDto> comments = commentRepository.findByPostId(post.getId(), Sort.by(Sort.Direction.ASC, "createdAt"))
-                            .stream()
-                            .map(CommentDto.Mapper::fromEntity)
-                            .collect(Collectors.toList());
+    public CursorPage<PostDto> searchPosts(String terms, String cursor, int size) {
+        if (terms == null || terms.isBlank()) {
+            throw new ValidationException("Search query is required");
+        }
+        if (terms.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new ValidationException("Search query must be at most " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        Double score = null;
+        String postId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] keys = UtilityMethods.decodeCursor(cursor, 2);
+            score = parseCursorScore(keys[0]);
+            postId = keys[1];
+        }
+
+        List<Post> posts;
+        try {
+            posts = postRepository.searchPosts(terms.trim(), score, postId, pageSize + 1, searchMaxTime);
+        } catch (DataAccessException e) {
+            if (e.getMostSpecificCause() instanceof MongoExecutionTimeoutException) {
+                throw new ApplicationException("Search took too long, please use more specific terms");
+            }
+            throw e;
+        }
+        boolean hasNext = posts.size() > pageSize;
+        List<Post> page = hasNext ? posts.subList(0, pageSize) : posts;
+        resolveAuthors(page, List.of());
 
-                    return new PostDto(post.getId(), post.getTitle(), post.getContent(), post.getMember(), post.getCreatedAt(), comments);
-                });
+        List<PostDto> content = page.stream().map(post -> {
+            PostDto dto = PostDto.Mapper.fromEntityWithComments(post, List.of(), SEARCH_FIELDS);
+            dto.setScore(post.getScore());
+            return dto;
+        }).toList();
+        Post last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String nextCursor = hasNext ? UtilityMethods.encodeCursor(String.valueOf(last.getScore()), last.getId()) : null;
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    /**
+     * Parses the score part of a search cursor.
+     *
+     * @param value the encoded score
+     * @return the parsed score
+     * @throws ValidationException if the value is not a valid score
+     */
+    private Double parseCursorScore(String value) {
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Suggests posts for a query as it is typed, from the in-memory index. The last word of the
+     * query is matched as a prefix, and only the ID, title and score of each post are returned.
+     *
+     * @param query the query typed so far
+     * @param limit the maximum number of suggestions, capped at {@link #MAX_SEARCH_PAGE_SIZE}
+     * @return the suggestions, best first, or empty if the in-memory index is not available
+     * @throws ValidationException if the query is blank or too long
+     */
+    public Optional<List<PostDto>> suggestPosts(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Search query is required");
+        }
+        if (query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new ValidationException("Search query must be at most " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_SEARCH_PAGE_SIZE));
+        return postSearchIndex.search(query, size).map(hits -> hits.stream().map(hit -> {
+            PostDto dto = new PostDto();
+            dto.setId(hit.key());
+            dto.setTitle(hit.title());
+            dto.setScore((double) hit.score());
+            return dto;
+        }).toList());
+    }
+
+    /**
+     * Parses the date part of a posts cursor.
+     *
+     * @param value the encoded date
+     * @return the parsed date
+     * @throws ValidationException if the value is not a valid date
+     */
+    private LocalDateTime parseCursorDate(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor");
+        }
     }
 
     /**
-     * Fetches a single post by its ID.
+     * Fetches a page of the feed where each post carries only its latest comments and the
+     * total comment count, so the response size does not grow with the length of a thread.
+     *
+     * @param pageable           the page to fetch
+     * @param commentPreviewSize the number of latest comments to embed per post
+     * @param fields             the fields to populate
+     * @return a slice of PostDto with {@code commentCount} populated
+     */
+    public Slice<PostDto> getFeed(Pageable pageable, int commentPreviewSize, FieldSelection fields) {
+        int previewSize = fields.includes("comments") ? Math.max(0, Math.min(commentPreviewSize, MAX_COMMENT_PREVIEW)) : 0;
+        Slice<PostFeedEntry> feed = postRepository.findFeed(pageable, previewSize, PostDto.Mapper.toEntityProperties(fields));
+
+        List<Authored> authored = new ArrayList<>();
+        feed.forEach(entry -> {
+            authored.add(entry.getPost());
+            authored.addAll(entry.getLatestComments());
+        });
+        memberReferenceResolver.resolveAuthors(authored);
+
+        return feed.map(entry -> PostDto.Mapper.fromFeedEntry(entry, fields));
+    }
+
+    /**
+     * Counts the posts for a paginated listing.
+     *
+     * @param exact whether to count exactly, which scans the collection, instead of estimating
+     * @return the number of posts
+     */
+    public long countPosts(boolean exact) {
+        return exact ? postRepository.count() : collectionCountService.estimatedCount(Post.class);
+    }
+
+    /**
+     * Computes the version of the post listings, which changes whenever a post or comment is
+     * written or a post is deleted. It is derived from the latest update dates of posts and
+     * comments and from the post count, all answered from indexes or collection metadata, so it
+     * is far cheaper than building any page. It is cached for {@code app.cache.specs.postsVersion.time-to-live}
+     * and evicted by the writes of this node, so writes of other nodes show up after at most that long.
+     *
+     * @return the version of the post listings
+     */
+    @Cacheable(value = VERSION_CACHE_NAME, key = "'all'", sync = true)
+    public String getPostsVersion() {
+        return postRepository.findLastUpdatedAt().map(LocalDateTime::toString).orElse("")
+                + "/" + commentRepository.findLastUpdatedAt().map(LocalDateTime::toString).orElse("")
+                + "/" + postRepository.estimatedCount();
+    }
+
+    /**
+     * Fetches only the comments version of a post. The title and content of a post never change,
+     * and its comments version is bumped whenever its comments or the author snapshots it holds
+     * change, so together with its ID this identifies the version {@link #getPostById(String)} returns.
+     *
+     * @param postId the ID of the post
+     * @return the comments version, or empty if the post does not exist
+     */
+    public Optional<Long> findCommentsVersion(String postId) {
+        return postRepository.findCommentsVersion(postId);
+    }
+
+    /**
+     * Loads the comments of all the given posts with one query and groups them by post ID.
+     * Authors of the posts and comments that lack a snapshot are resolved together in one more query.
+     *
+     * @param posts  the posts whose comments should be loaded
+     * @param fields the fields to populate; comments are only loaded when selected
+     * @return comments keyed by post ID, each list ordered by creation date
+     */
+    private Map<String, List<CommentDto>> loadCommentsAndAuthors(List<Post> posts, FieldSelection fields) {
+        if (posts.isEmpty()) {
+            return Map.of();
+        }
+        if (!fields.includes("comments")) {
+            resolveAuthors(posts, List.of());
+            return Map.of();
+        }
+        List<String> postIds = posts.stream().map(Post::getId).toList();
+        List<Comment> comments = commentRepository.findByPostIdIn(postIds, Sort.by(Sort.Direction.ASC, "createdAt"));
+        resolveAuthors(posts, comments);
+
+        return comments.stream()
+                .collect(Collectors.groupingBy(Comment::getPostId,
+                        Collectors.mapping(CommentDto.Mapper::fromEntity, Collectors.toList())));
+    }
+
+    /**
+     * Resolves the authors of the given posts and comments with a single lookup.
+     *
+     * @param posts    the posts
+     * @param comments the comments
+     */
+    private void resolveAuthors(List<Post> posts, List<Comment> comments) {
+        List<Authored> authored = new ArrayList<>(posts.size() + comments.size());
+        authored.addAll(posts);
+        authored.addAll(comments);
+        memberReferenceResolver.resolveAuthors(authored);
+    }
+
+    /**
+     * Evicts the cached copy of a post, e.g. once it is known to be older than the post.
+     *
+     * @param postId the ID of the post
+     */
+    public void evictCachedPost(String postId) {
+        postCacheWriter.evict(postId);
+    }
+
+    /**
+     * Fetches a single post by its ID along with the first page of its comments, newest first.
+     * Further comments are fetched with {@link #getComments(String, String, int)} from the
+     * returned {@code commentsNextCursor}.
      *
      * @param postId the unique identifier of the post
      * @return Optional containing the post if found, else empty
      */
-    @Cacheable(value = "posts", key = "#postId")
+    @Cacheable(value = "posts", key = "#postId", sync = true)
     public Optional<PostDto> getPostById(String postId) {
         return postRepository.findByPostId(postId).map(post -> {
-            List<CommentDto> comments = commentRepository.findByPostId(postId, Sort.by(Sort.Direction.DESC, "createdAt"))
-                    .stream().map(CommentDto.Mapper::fromEntity).collect(Collectors.toList());
-            return new PostDto(post.getId(), post.getTitle(), post.getContent(), post.getMember(), post.getCreatedAt(), comments);
+            List<Comment> comments = commentRepository.findCommentsBefore(postId, null, null, COMMENT_PAGE_SIZE + 1);
+            CursorPage<CommentDto> firstPage = toCommentPage(List.of(post), comments, COMMENT_PAGE_SIZE);
+            PostDto dto = PostDto.Mapper.fromEntityWithComments(post, firstPage.content());
+            dto.setCommentCount(post.getCommentCount());
+            dto.setCommentsNextCursor(firstPage.nextCursor());
+            dto.setCommentsVersion(post.getCommentsVersion());
+            return dto;
         });
     }
 
+    /**
+     * Fetches the page of a post's comments that follows the given cursor, newest first.
+     *
+     * @param postId the ID of the post
+     * @param cursor the cursor returned with the previous page, or null/blank for the first page
+     * @param size   the page size, capped at {@link #MAX_COMMENT_PAGE_SIZE}
+     * @return the comments on the page and the cursor of the next one
+     */
+    public CursorPage<CommentDto> getComments(String postId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_COMMENT_PAGE_SIZE));
+        LocalDateTime createdAt = null;
+        String commentId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] keys = UtilityMethods.decodeCursor(cursor, 2);
+            createdAt = parseCursorDate(keys[0]);
+            commentId = keys[1];
+        }
+        List<Comment> comments = commentRepository.findCommentsBefore(postId, createdAt, commentId, pageSize + 1);
+        return toCommentPage(List.of(), comments, pageSize);
+    }
+
+    /**
+     * Trims a thread fetched with one extra comment to a page, resolving the authors of the page
+     * and of the given posts together, and derives the cursor of the next page.
+     *
+     * @param posts    posts rendered alongside the comments
+     * @param comments the comments, holding at most one more than {@code size}
+     * @param size     the page size
+     * @return the page of comments
+     */
+    private CursorPage<CommentDto> toCommentPage(List<Post> posts, List<Comment> comments, int size) {
+        boolean hasNext = comments.size() > size;
+        List<Comment> page = hasNext ? comments.subList(0, size) : comments;
+        resolveAuthors(posts, page);
+
+        Comment last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String nextCursor = hasNext ? commentCursor(last.getCreatedAt(), last.getId()) : null;
+        return new CursorPage<>(page.stream().map(CommentDto.Mapper::fromEntity).toList(), nextCursor);
+    }
+
+    /**
+     * Encodes the cursor pointing after a comment in a thread.
+     *
+     * @param createdAt the creation date of the comment
+     * @param commentId the ID of the comment
+     * @return the cursor, or null if the comment has no creation date
+     */
+    static String commentCursor(LocalDateTime createdAt, String commentId) {
+        return createdAt == null ? null : UtilityMethods.encodeCursor(createdAt.toString(), commentId);
+    }
+
     /**
      * Creates a new post.
      *
@@ -83,23 +462,30 @@ public class PostService {
      * @param content the content of the post
      * @return the created post
      */
-    @CachePut(value = "posts", key = "#result.id")
+    @Caching(put = @CachePut(value = "posts", key = "#result.id"), evict = @CacheEvict(value = VERSION_CACHE_NAME, allEntries = true))
     public PostDto createPost(String userName, String title, String content) {
         Member member = memberRepository.findByUsername(userName).orElseThrow(() -> new IllegalArgumentException("Invalid member ID"));
         Post post = new Post(null, member, title, content, new ArrayList<>());
-        return PostDto.Mapper.fromEntity(postRepository.save(post), new ArrayList<>());
+        Post saved = postRepository.save(post);
+        postSearchIndex.add(saved.getPostId(), saved.getTitle(), saved.getContent());
+        PostDto dto = PostDto.Mapper.fromEntity(saved, new ArrayList<>());
+        dto.setCommentsVersion(saved.getCommentsVersion());
+        return dto;
     }
 
     /**
-     * Adds a comment to a post.
+     * Adds a comment to a post. The cached post, if any, is updated with the new comment rather
+     * than evicted, so readers of a busy thread keep being served from the cache. The comment count
+     * is recounted rather than incremented, so it stays right if this request fails in between or
+     * the reconciler recounts the post meanwhile.
      *
      * @param postId  the ID of the post
      * @param userName the username of the person adding the comment
      * @param content the content of the comment
      * @return the updated post
      */
-    @CacheEvict(value = "posts", key = "#postId")
     @Transactional
+    @CacheEvict(value = VERSION_CACHE_NAME, allEntries = true)
     public CommentDto addComment(String postId, String userName, String content) {
         Member member = memberRepository.findByUsername(userName).orElseThrow(() -> new UserNotFoundException("Invalid member ID"));
         Optional<Post> postOpt = postRepository.findByPostId(postId);
@@ -108,7 +494,12 @@ public class PostService {
         }
         Post post = postOpt.get();
         Comment comment = new Comment(null, member, post.getPostId(), content);
-        return CommentDto.Mapper.fromEntity(commentRepository.save(comment));
+        CommentDto saved = CommentDto.Mapper.fromEntity(commentRepository.save(comment));
+        postRepository.recountComments(post.getPostId()).ifPresentOrElse(
+                counters -> postCacheWriter.appendComment(post.getPostId(), saved, counters.getCommentCount(), counters.getCommentsVersion()),
+                () -> postCacheWriter.evict(post.getPostId()));
+        eventPublisher.publishEvent(new CommentAddedEvent(post.getPostId(), saved));
+        return saved;
     }
 
     /**
@@ -117,12 +508,16 @@ public class PostService {
      * @param userName the username of the person deleting the post
      * @param postId   the ID of the post
      */
-    @CacheEvict(value = "posts", key = "#postId")
+    @Caching(evict = {@CacheEvict(value = "posts", key = "#postId"), @CacheEvict(value = VERSION_CACHE_NAME, allEntries = true)})
     public void deletePost(String userName, String postId) {
         Member member = memberRepository.findByUsername(userName).orElseThrow(() -> new UserNotFoundException("Invalid member ID"));
+        long deleted;
         if (member.getUserRole().equalsIgnoreCase(ApplicationConstants.ROLES.ADMIN.name())) {
-            postRepository.deleteByPostId(postId);
-        } else postRepository.deleteByPostIdAndMember(postId, member);
+            deleted = postRepository.deleteByPostId(postId);
+        } else deleted = postRepository.deleteByPostIdAndMember(postId, member);
+        if (deleted > 0) {
+            postSearchIndex.remove(postId);
+        }
     }
 
     /**
@@ -131,10 +526,16 @@ public class PostService {
      * @param userName  the username of the person deleting the comment
      * @param commentId the ID of the comment
      */
+    @CacheEvict(value = VERSION_CACHE_NAME, allEntries = true)
     public void deleteComment(String userName, String commentId) {
         Member member = memberRepository.findByUsername(userName).orElseThrow(() -> new UserNotFoundException("Invalid member ID"));
+        List<Comment> deleted;
         if (member.getUserRole().equalsIgnoreCase(ApplicationConstants.ROLES.ADMIN.name())) {
-            commentRepository.deleteByCommentId(commentId);
-        } else commentRepository.deleteByCommentIdAndMember(commentId, member);
+            deleted = commentRepository.deleteByCommentId(commentId);
+        } else deleted = commentRepository.deleteByCommentIdAndMember(commentId, member);
+        deleted.stream().map(Comment::getPostId).distinct().forEach(postId -> {
+            postRepository.recountComments(postId);
+            postCacheWriter.evict(postId);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package org.johndoe.kitchensink.services;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Service allocating increasing numeric IDs from named sequences, kept in the {@value #COLLECTION}
+ * collection.
+ * <p>
+ * Each node reserves a block of {@code app.sequences.block-size} values at a time with one atomic
+ * {@code findAndModify}/{@code $inc} (hi/lo allocation), and hands them out from memory until the
+ * block runs out. Values are unique across nodes, increasing on each node, and not contiguous: the
+ * rest of a block is lost when a node stops.
+ */
+@Service
+public class SequenceService {
+
+    /**
+     * Name of the collection holding the current value of every sequence.
+     */
+    static final String COLLECTION = "counters";
+
+    /**
+     * Field of a counter holding the highest value reserved so far.
+     */
+    static final String VALUE = "value";
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * Number of values a node reserves per round trip.
+     */
+    @Value("${app.sequences.block-size:20}")
+    int blockSize = 20;
+
+    /**
+     * Constructs a new SequenceService.
+     *
+     * @param mongoTemplate the mongo template
+     */
+    public SequenceService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Allocates the next value of a sequence.
+     *
+     * @param sequence the sequence name
+     * @param floor    supplies the highest value already in use, e.g. written before the sequence
+     *                 existed; called once per node, before its first reservation
+     * @return a value of the sequence no other caller gets
+     */
+    public long next(String sequence, LongSupplier floor) {
+        Block block = blocks.computeIfAbsent(sequence, name -> new Block());
+        synchronized (block) {
+            if (block.next > block.last) {
+                if (!block.seeded) {
+                    raiseTo(sequence, floor.getAsLong());
+                    block.seeded = true;
+                }
+                block.last = reserve(sequence, blockSize);
+                block.next = block.last - blockSize + 1;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Drops the values this node reserved for a sequence and reseeds it from its floor on the next
+     * allocation, e.g. after an allocated value turned out to be in use already.
+     *
+     * @param sequence the sequence name
+     */
+    public void reset(String sequence) {
+        blocks.remove(sequence);
+    }
+
+    /**
+     * Atomically reserves the next block of a sequence, creating it if needed.
+     *
+     * @param sequence the sequence name
+     * @param size     the number of values to reserve
+     * @return the last value of the reserved block
+     */
+    private long reserve(String sequence, int size) {
+        Document counter = mongoTemplate.findAndModify(new Query(where("_id").is(sequence)), new Update().inc(VALUE, size),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+        return ((Number) counter.get(VALUE)).longValue();
+    }
+
+    /**
+     * Raises a sequence to at least the given value, so that it never hands out a value in use.
+     *
+     * @param sequence the sequence name
+     * @param value    the highest value in use
+     */
+    private void raiseTo(String sequence, long value) {
+        mongoTemplate.upsert(new Query(where("_id").is(sequence)), new Update().max(VALUE, value), COLLECTION);
+    }
+
+    /**
+     * The values of a sequence reserved by this node and not handed out yet.
+     */
+    private static final class Block {
+        private long next = 1;
+        private long last = 0;
+        private boolean seeded;
+    }
+}
@@ -0,0 +1,127 @@
+package org.johndoe.kitchensink.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over strings: tells that a string was certainly not added, or that it probably was.
+ * Thread-safe; adds and lookups need no locking.
+ * <p>
+ * The filter is sized for an expected number of strings and false positive rate, within a cap on
+ * its bits. Past that number, or when the cap applies, the false positive rate grows, as reported
+ * by {@link #expectedFalsePositiveRate()}; there are never false negatives. Each string is hashed
+ * twice with different seeds, and its {@code k} bit positions are derived from the two hashes
+ * (Kirsch-Mitzenmacher double hashing).
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLong additions = new AtomicLong();
+
+    /**
+     * Constructs a new BloomFilter.
+     *
+     * @param expectedInsertions the number of strings expected to be added
+     * @param falsePositiveRate  the false positive rate wanted at that number, between 0 and 1
+     * @param maxBits            the maximum number of bits the filter may use
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate, long maxBits) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long insertions = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long bits = Math.max(Long.SIZE, Math.min(optimalBits, maxBits));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bits + Long.SIZE - 1) / Long.SIZE);
+        this.words = new AtomicLongArray(words);
+        this.bitSize = (long) words * Long.SIZE;
+        this.hashCount = (int) Math.max(1, Math.min(30, Math.round((double) bitSize / insertions * Math.log(2))));
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @param value the string
+     */
+    public void add(CharSequence value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        additions.incrementAndGet();
+    }
+
+    /**
+     * Tells whether a string may have been added.
+     *
+     * @param value the string
+     * @return false if the string was certainly not added, true if it probably was
+     */
+    public boolean mightContain(CharSequence value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the current false positive rate, from the number of strings added so far.
+     *
+     * @return the probability that a string never added is reported as probably added
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * additions.get() / bitSize), hashCount);
+    }
+
+    /**
+     * Describes the filter and the heap it retains.
+     *
+     * @return statistics keyed by name
+     */
+    public Map<String, Object> statistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("additions", additions.get());
+        statistics.put("bits", bitSize);
+        statistics.put("hashFunctions", hashCount);
+        statistics.put("expectedFalsePositiveRate", expectedFalsePositiveRate());
+        statistics.put("estimatedBytes", bitSize / Byte.SIZE + 16);
+        return statistics;
+    }
+
+    /**
+     * Hashes the characters of a string to 64 bits, finishing with the MurmurHash3 mix.
+     *
+     * @param value the string
+     * @param seed  the seed
+     * @return the hash
+     */
+    private static long hash(CharSequence value, long seed) {
+        long hash = seed ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+            hash = Long.rotateLeft(hash, 29);
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,540 @@
+package org.johndoe.kitchensink.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over short documents with a title and a body, answering
+ * search-as-you-type queries. Not thread-safe; callers synchronize access.
+ * <p>
+ * Each document gets a dense int ID, and postings lists are sorted primitive int arrays of those
+ * IDs with a parallel array of term weights. Besides the postings of whole terms, every prefix of
+ * a term up to {@link #MAX_PREFIX_LENGTH} characters has postings of its own, so the last,
+ * partially typed word of a query is a single lookup rather than an expansion over the
+ * dictionary. Longer prefixes are matched on their first {@link #MAX_PREFIX_LENGTH} characters.
+ * <p>
+ * A query matches the documents containing every word, and the best {@code k} are ranked by a
+ * BM25 style score with a bounded heap. Removed documents are only marked, and their postings are
+ * compacted away once they make up half of the index.
+ * <p>
+ * The heap retained is estimated as documents are added and removed, and bounded by a budget:
+ * once the estimate exceeds it, further documents are refused.
+ */
+public class InvertedIndex {
+
+    /**
+     * Weight of an occurrence in the title; an occurrence in the body weighs 1.
+     */
+    static final int TITLE_WEIGHT = 3;
+
+    /**
+     * Longest prefix given postings of its own.
+     */
+    static final int MAX_PREFIX_LENGTH = 10;
+
+    /**
+     * Tokens longer than this are ignored, as they are rarely words anyone types.
+     */
+    static final int MAX_TOKEN_LENGTH = 40;
+
+    /**
+     * Saturation of the term weight in the score: further occurrences count less and less.
+     */
+    private static final float K1 = 1.2f;
+
+    /**
+     * Minimum number of removed documents before postings are compacted.
+     */
+    private static final int MIN_COMPACTION = 1024;
+
+    /**
+     * Approximate heap sizes used by {@link #estimatedBytes()}, assuming compressed oops.
+     */
+    private static final int STRING_OVERHEAD = 40;
+    private static final int MAP_ENTRY_OVERHEAD = 48;
+    private static final int POSTINGS_OVERHEAD = 56;
+
+    private final long maxBytes;
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final Map<String, Postings> prefixes = new HashMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private String[] keys = new String[16];
+    private String[] titles = new String[16];
+    private final BitSet removed = new BitSet();
+    private int nextDocId;
+    private int removedCount;
+
+    /**
+     * Estimated heap retained by the dictionaries and the documents, kept up to date as they change.
+     */
+    private long bytes;
+
+    /**
+     * A search result.
+     *
+     * @param key   the key the document was added with
+     * @param title the title of the document
+     * @param score the relevance of the document to the query
+     */
+    public record Hit(String key, String title, float score) {
+    }
+
+    /**
+     * Constructs a new InvertedIndex without a budget.
+     */
+    public InvertedIndex() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new InvertedIndex.
+     *
+     * @param maxBytes the heap the index may retain, as estimated by {@link #estimatedBytes()}
+     */
+    public InvertedIndex(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Adds a document, replacing any document previously added with the same key. The document is
+     * refused if the index already exceeds its budget; a document it replaces is removed anyway.
+     *
+     * @param key   the key of the document, e.g. a post ID
+     * @param title the title, may be null
+     * @param body  the body, may be null
+     * @return true if the document was added, false if the index is over its budget
+     */
+    public boolean add(String key, String title, String body) {
+        remove(key);
+        if (estimatedBytes() > maxBytes) {
+            return false;
+        }
+        Map<String, Integer> termWeights = new HashMap<>();
+        tokenize(title, token -> termWeights.merge(token, TITLE_WEIGHT, Integer::sum));
+        tokenize(body, token -> termWeights.merge(token, 1, Integer::sum));
+
+        Map<String, Integer> prefixWeights = new HashMap<>();
+        termWeights.forEach((term, weight) -> {
+            for (int length = 1; length <= Math.min(term.length(), MAX_PREFIX_LENGTH); length++) {
+                prefixWeights.merge(term.substring(0, length), weight, Math::max);
+            }
+        });
+
+        int docId = nextDocId++;
+        if (docId == keys.length) {
+            keys = Arrays.copyOf(keys, docId + (docId >> 1));
+            titles = Arrays.copyOf(titles, keys.length);
+        }
+        keys[docId] = key;
+        titles[docId] = title;
+        docIds.put(key, docId);
+        bytes += documentBytes(key, title);
+        termWeights.forEach((term, weight) -> post(terms, term, docId, weight));
+        prefixWeights.forEach((prefix, weight) -> post(prefixes, prefix, docId, weight));
+        return true;
+    }
+
+    /**
+     * Appends a document to the postings of a term or prefix, creating them if needed.
+     *
+     * @param dictionary the terms or the prefixes
+     * @param entry      the term or prefix
+     * @param docId      the document ID
+     * @param weight     the weight of the term or prefix in the document
+     */
+    private void post(Map<String, Postings> dictionary, String entry, int docId, int weight) {
+        Postings postings = dictionary.get(entry);
+        if (postings == null) {
+            postings = new Postings();
+            dictionary.put(entry, postings);
+            bytes += entryBytes(entry, postings);
+        }
+        bytes += 8L * postings.add(docId, weight);
+    }
+
+    /**
+     * Removes a document.
+     *
+     * @param key the key of the document
+     * @return true if the document was in the index
+     */
+    public boolean remove(String key) {
+        Integer docId = docIds.remove(key);
+        if (docId == null) {
+            return false;
+        }
+        removed.set(docId);
+        bytes -= documentBytes(key, titles[docId]);
+        keys[docId] = null;
+        titles[docId] = null;
+        removedCount++;
+        if (removedCount >= MIN_COMPACTION && removedCount > docIds.size()) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Finds the documents best matching a query. Every word must occur in a document; the last
+     * word is matched as a prefix unless the query ends with a space, so results keep up with a
+     * word being typed.
+     *
+     * @param query the query
+     * @param k     the maximum number of results
+     * @return at most {@code k} hits, best first
+     */
+    public List<Hit> search(String query, int k) {
+        List<String> words = new ArrayList<>();
+        tokenize(query, words::add);
+        if (words.isEmpty() || k <= 0) {
+            return List.of();
+        }
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        Postings[] lists = new Postings[words.size()];
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            Postings postings = i == words.size() - 1 && lastIsPrefix
+                    ? prefixes.get(word.length() > MAX_PREFIX_LENGTH ? word.substring(0, MAX_PREFIX_LENGTH) : word)
+                    : terms.get(word);
+            if (postings == null) {
+                return List.of();
+            }
+            lists[i] = postings;
+        }
+        // Drive the intersection from the shortest list and probe the others.
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        float[] idf = new float[lists.length];
+        int documents = docIds.size();
+        for (int i = 0; i < lists.length; i++) {
+            idf[i] = (float) Math.log(1 + (documents - lists[i].size + 0.5) / (lists[i].size + 0.5));
+        }
+
+        TopK top = new TopK(k);
+        Postings driver = lists[0];
+        candidates:
+        for (int i = 0; i < driver.size; i++) {
+            int docId = driver.docs[i];
+            if (removed.get(docId)) {
+                continue;
+            }
+            float score = idf[0] * saturate(driver.weights[i]);
+            for (int j = 1; j < lists.length; j++) {
+                int position = Arrays.binarySearch(lists[j].docs, 0, lists[j].size, docId);
+                if (position < 0) {
+                    continue candidates;
+                }
+                score += idf[j] * saturate(lists[j].weights[position]);
+            }
+            top.offer(docId, score);
+        }
+        return top.hits();
+    }
+
+    /**
+     * Returns the number of documents in the index.
+     *
+     * @return the number of documents
+     */
+    public int size() {
+        return docIds.size();
+    }
+
+    /**
+     * Describes the contents of the index, the heap it is estimated to retain and its budget.
+     *
+     * @return statistics keyed by name
+     */
+    public Map<String, Long> statistics() {
+        long postings = 0;
+        for (Postings list : terms.values()) {
+            postings += list.size;
+        }
+        long prefixPostings = 0;
+        for (Postings list : prefixes.values()) {
+            prefixPostings += list.size;
+        }
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("documents", (long) docIds.size());
+        statistics.put("removedDocuments", (long) removedCount);
+        statistics.put("terms", (long) terms.size());
+        statistics.put("prefixes", (long) prefixes.size());
+        statistics.put("termPostings", postings);
+        statistics.put("prefixPostings", prefixPostings);
+        statistics.put("estimatedBytes", estimatedBytes());
+        statistics.put("maxBytes", maxBytes);
+        return statistics;
+    }
+
+    /**
+     * Estimates the heap retained by the index, without walking it.
+     *
+     * @return the estimated size in bytes
+     */
+    long estimatedBytes() {
+        return arrayBytes() + bytes;
+    }
+
+    /**
+     * Estimates the heap retained by the index by walking it, as {@link #estimatedBytes()} does
+     * incrementally. The estimate counts the arrays, strings and map entries the index holds, not
+     * the JVM's alignment padding.
+     *
+     * @return the estimated size in bytes
+     */
+    long countBytes() {
+        return arrayBytes() + countEntryBytes();
+    }
+
+    /**
+     * Estimates the heap retained by the document arrays and the removed set.
+     *
+     * @return the estimated size in bytes
+     */
+    private long arrayBytes() {
+        return 16L + 8L * keys.length + 8L * titles.length + removed.size() / 8;
+    }
+
+    /**
+     * Walks the dictionaries and the documents to count the heap they retain, which {@link #bytes}
+     * tracks incrementally.
+     *
+     * @return the estimated size in bytes
+     */
+    private long countEntryBytes() {
+        long count = 0;
+        for (Map<String, Postings> dictionary : List.of(terms, prefixes)) {
+            for (Map.Entry<String, Postings> entry : dictionary.entrySet()) {
+                count += entryBytes(entry.getKey(), entry.getValue());
+            }
+        }
+        for (int docId = 0; docId < nextDocId; docId++) {
+            if (keys[docId] != null) {
+                count += documentBytes(keys[docId], titles[docId]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Estimates the heap retained by a term or prefix and its postings.
+     *
+     * @param entry    the term or prefix
+     * @param postings its postings
+     * @return the estimated size in bytes
+     */
+    private static long entryBytes(String entry, Postings postings) {
+        return MAP_ENTRY_OVERHEAD + STRING_OVERHEAD + entry.length() + POSTINGS_OVERHEAD + 8L * postings.docs.length;
+    }
+
+    /**
+     * Estimates the heap retained by a document: its key, held twice, its ID and its title.
+     *
+     * @param key   the key of the document
+     * @param title the title of the document, may be null
+     * @return the estimated size in bytes
+     */
+    private static long documentBytes(String key, String title) {
+        return MAP_ENTRY_OVERHEAD + 16 + 2L * (STRING_OVERHEAD + key.length()) + (title == null ? 0 : STRING_OVERHEAD + title.length());
+    }
+
+    /**
+     * Renumbers the remaining documents densely and drops the removed ones from every postings
+     * list. The numbering keeps its order, so the lists stay sorted.
+     */
+    private void compact() {
+        int[] renumbered = new int[nextDocId];
+        int live = 0;
+        for (int docId = 0; docId < nextDocId; docId++) {
+            if (removed.get(docId)) {
+                renumbered[docId] = -1;
+            } else {
+                renumbered[docId] = live;
+                keys[live] = keys[docId];
+                titles[live] = titles[docId];
+                docIds.put(keys[live], live);
+                live++;
+            }
+        }
+        Arrays.fill(keys, live, nextDocId, null);
+        Arrays.fill(titles, live, nextDocId, null);
+        terms.values().removeIf(postings -> postings.renumber(renumbered));
+        prefixes.values().removeIf(postings -> postings.renumber(renumbered));
+        nextDocId = live;
+        removed.clear();
+        removedCount = 0;
+        bytes = countEntryBytes();
+    }
+
+    /**
+     * Dampens a term weight so that repeating a word does not outweigh matching another one.
+     *
+     * @param weight the weight of the term in the document
+     * @return the saturated weight
+     */
+    private static float saturate(int weight) {
+        return weight * (K1 + 1) / (weight + K1);
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits, in order.
+     *
+     * @param text     the text, may be null
+     * @param consumer receives each word
+     */
+    static void tokenize(String text, Consumer<String> consumer) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_TOKEN_LENGTH) {
+                    consumer.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Postings list of a term or prefix: document IDs in ascending order with their weights.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private int[] weights = new int[2];
+        private int size;
+
+        /**
+         * Appends a document, which must have a higher ID than those already listed.
+         *
+         * @param docId  the document ID
+         * @param weight the weight of the term in the document
+         * @return the number of slots the arrays grew by
+         */
+        int add(int docId, int weight) {
+            int grown = 0;
+            if (size == docs.length) {
+                grown = (size >> 1) + 1;
+                docs = Arrays.copyOf(docs, size + grown);
+                weights = Arrays.copyOf(weights, docs.length);
+            }
+            docs[size] = docId;
+            weights[size] = weight;
+            size++;
+            return grown;
+        }
+
+        /**
+         * Applies a new numbering, dropping the documents mapped to -1, and trims the arrays.
+         *
+         * @param renumbered the new ID of every old ID
+         * @return true if the list is now empty
+         */
+        boolean renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int docId = renumbered[docs[i]];
+                if (docId >= 0) {
+                    docs[kept] = docId;
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            docs = Arrays.copyOf(docs, Math.max(kept, 1));
+            weights = Arrays.copyOf(weights, docs.length);
+            return kept == 0;
+        }
+    }
+
+    /**
+     * Keeps the {@code k} best scored documents in a min-heap of primitive arrays.
+     */
+    private final class TopK {
+
+        private final int[] heapDocs;
+        private final float[] heapScores;
+        private int size;
+
+        TopK(int k) {
+            heapDocs = new int[k];
+            heapScores = new float[k];
+        }
+
+        void offer(int docId, float score) {
+            if (size < heapDocs.length) {
+                heapDocs[size] = docId;
+                heapScores[size] = score;
+                siftUp(size++);
+            } else if (score > heapScores[0]) {
+                heapDocs[0] = docId;
+                heapScores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        List<Hit> hits() {
+            Hit[] hits = new Hit[size];
+            for (int i = size - 1; i >= 0; i--) {
+                hits[i] = new Hit(keys[heapDocs[0]], titles[heapDocs[0]], heapScores[0]);
+                heapDocs[0] = heapDocs[i];
+                heapScores[0] = heapScores[i];
+                size = i;
+                siftDown(0);
+            }
+            return Arrays.asList(hits);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (heapScores[parent] <= heapScores[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && heapScores[left] < heapScores[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && heapScores[right] < heapScores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = heapDocs[a];
+            heapDocs[a] = heapDocs[b];
+            heapDocs[b] = doc;
+            float score = heapScores[a];
+            heapScores[a] = heapScores[b];
+            heapScores[b] = score;
+        }
+    }
+}
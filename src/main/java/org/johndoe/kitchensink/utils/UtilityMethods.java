@@ -1,9 +1,22 @@
 package org.johndoe.kitchensink.utils;
 
+import org.johndoe.kitchensink.dtos.CursorPage;
+import org.johndoe.kitchensink.exceptions.ValidationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Utility methods for common tasks.
@@ -11,23 +24,26 @@ import java.util.Map;
 public class UtilityMethods {
 
     /**
-     * Masks an email address by replacing characters with asterisks.
+     * Separator between the sort key values inside a cursor.
+     */
+    private static final String CURSOR_SEPARATOR = "|";
+
+    /**
+     * Masks an email address by replacing characters with asterisks. The result is built in a
+     * single pass over the address, without splitting it.
      *
      * @param email the email address to mask
      * @return the masked email address
      */
     public static String maskEmail(String email) {
-        if (email == null || !email.contains("@")) return "*****";
-
-        String[] parts = email.split("@");
-        String username = parts[0];
-        String domain = parts[1];
+        int at = email == null ? -1 : email.indexOf('@');
+        if (at <= 0) return "*****";
 
-        if (username.length() <= 2) {
-            return username.charAt(0) + "****@" + domain;
+        StringBuilder masked = new StringBuilder(email.length() + 4).append(email.charAt(0)).append("****");
+        if (at > 2) {
+            masked.append(email.charAt(at - 1));
         }
-
-        return username.charAt(0) + "****" + username.charAt(username.length() - 1) + "@" + domain;
+        return masked.append(email, at, email.length()).toString();
     }
 
     /**
@@ -40,10 +56,11 @@ public class UtilityMethods {
         if (phone == null || phone.length() < 4) return "****";
 
         int visibleDigits = 2;
-        String start = phone.substring(0, visibleDigits);
-        String end = phone.substring(phone.length() - visibleDigits);
-
-        return start + "****" + end;
+        return new StringBuilder(visibleDigits * 2 + 4)
+                .append(phone, 0, visibleDigits)
+                .append("****")
+                .append(phone, phone.length() - visibleDigits, phone.length())
+                .toString();
     }
 
     public static Map<String, Object> paginateResponse(Page<?> page) {
@@ -56,4 +73,151 @@ public class UtilityMethods {
         response.put("isLast", page.isLast());
         return response;
     }
+
+    /**
+     * Builds the response body for a slice of a listing whose total was obtained separately, so
+     * that fetching the page never implies a count. The total is flagged as exact only when it
+     * was counted on request; otherwise it is an estimate that may lag behind recent writes.
+     *
+     * @param slice         the slice, fetched with one extra row to tell whether a next page exists
+     * @param totalElements the exact or estimated number of elements in the listing
+     * @param exactTotal    whether {@code totalElements} was counted exactly
+     * @return the response body
+     */
+    public static Map<String, Object> paginateResponse(Slice<?> slice, long totalElements, boolean exactTotal) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", slice.getContent());
+        response.put("currentPage", slice.getNumber());
+        response.put("pageSize", slice.getSize());
+        response.put("hasNext", slice.hasNext());
+        response.put("isLast", slice.isLast());
+        response.put("totalElements", totalElements);
+        response.put("totalPages", slice.getSize() == 0 ? 1 : (int) Math.ceil((double) totalElements / slice.getSize()));
+        response.put("totalIsExact", exactTotal);
+        return response;
+    }
+
+    /**
+     * Turns rows fetched with a limit of one more than the page size into a slice, using the
+     * extra row only to tell whether a next page exists.
+     *
+     * @param rows     the rows, holding at most one more than the page size
+     * @param pageable the requested page
+     * @param <T>      the type of the rows
+     * @return the slice
+     */
+    public static <T> Slice<T> toSlice(List<T> rows, Pageable pageable) {
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    /**
+     * Builds the response body for a keyset paginated listing. Unlike {@link #paginateResponse(Page)}
+     * it carries no totals, since computing them would defeat the purpose of seeking.
+     *
+     * @param page     the cursor page
+     * @param pageSize the requested page size
+     * @return the response body
+     */
+    public static Map<String, Object> cursorResponse(CursorPage<?> page, int pageSize) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", page.content());
+        response.put("nextCursor", page.nextCursor());
+        response.put("pageSize", pageSize);
+        response.put("isLast", page.isLast());
+        return response;
+    }
+
+    /**
+     * Encodes the sort key values of the last item on a page into an opaque, URL safe cursor.
+     *
+     * @param keys the sort key values
+     * @return the encoded cursor
+     */
+    public static String encodeCursor(String... keys) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(CURSOR_SEPARATOR, keys).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor(String...)}.
+     *
+     * @param cursor       the encoded cursor
+     * @param expectedKeys the number of sort key values the cursor must hold
+     * @return the sort key values
+     * @throws ValidationException if the cursor is malformed
+     */
+    public static String[] decodeCursor(String cursor, int expectedKeys) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = decoded.split(Pattern.quote(CURSOR_SEPARATOR), -1);
+            if (keys.length == expectedKeys) {
+                return keys;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // falls through to the validation error below
+        }
+        throw new ValidationException("Invalid cursor");
+    }
+
+    /**
+     * Builds a strong entity tag from the values that identify a version of a response. The
+     * values are hashed, so the tag reveals nothing about them.
+     *
+     * @param versionParts the values identifying the version, e.g. a document ID and its update date
+     * @return the quoted entity tag
+     */
+    public static String entityTag(Object... versionParts) {
+        StringBuilder version = new StringBuilder();
+        for (Object part : versionParts) {
+            version.append(part).append(CURSOR_SEPARATOR);
+        }
+        return '"' + DigestUtils.md5DigestAsHex(version.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+
+    /**
+     * Starts a 200 response carrying an entity tag. Clients may keep the response privately but
+     * must revalidate it before reuse, which lets them poll with {@code If-None-Match}.
+     *
+     * @param entityTag the quoted entity tag of the response
+     * @return the response builder
+     */
+    public static ResponseEntity.BodyBuilder okWithEntityTag(String entityTag) {
+        return ResponseEntity.ok().eTag(entityTag).cacheControl(CacheControl.noCache().cachePrivate());
+    }
+
+    /**
+     * Builds a 304 response telling the client that its copy is still current.
+     *
+     * @param entityTag the quoted entity tag of the current version
+     * @param <T>       the type of the body the response would otherwise carry
+     * @return the response, without a body
+     */
+    public static <T> ResponseEntity<T> notModified(String entityTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).cacheControl(CacheControl.noCache().cachePrivate()).build();
+    }
+
+    /**
+     * Tells whether the entity tags of an {@code If-None-Match} request header match the given
+     * one, using the weak comparison RFC 9110 prescribes for this header.
+     *
+     * @param ifNoneMatch the header value, may be null
+     * @param entityTag   the quoted entity tag of the current version
+     * @return true if the client already holds the current version
+     */
+    public static boolean matchesEntityTag(String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch == null || entityTag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
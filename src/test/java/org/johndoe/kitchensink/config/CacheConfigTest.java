@@ -0,0 +1,56 @@
+package org.johndoe.kitchensink.config;
+
+import org.johndoe.kitchensink.dtos.PostDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTest {
+
+    private static PostDto post(String id, int contentLength) {
+        PostDto post = new PostDto();
+        post.setId(id);
+        post.setTitle("Title");
+        post.setContent("x".repeat(contentLength));
+        return post;
+    }
+
+    @Test
+    void cacheManager_ShouldBoundCachesByEstimatedSize() {
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Spec posts = new CacheProperties.Spec();
+        posts.setMaximumWeight(DataSize.ofKilobytes(64));
+        posts.setRefreshAfterWrite(Duration.ofMinutes(1));
+        properties.getSpecs().put("posts", posts);
+        CacheManager cacheManager = new CacheConfig().cacheManager(properties);
+
+        Cache cache = cacheManager.getCache("posts");
+        for (int i = 0; i < 10; i++) {
+            cache.put("p" + i, post("p" + i, 20_000));
+        }
+        com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache = (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+        nativeCache.cleanUp();
+
+        assertThat(nativeCache.estimatedSize()).isLessThanOrEqualTo(3);
+        Map<?, ?> statistics = (Map<?, ?>) ((CoalescingCache) cache).getStatistics().get("cache");
+        assertThat((Long) statistics.get("evictionCount")).isGreaterThanOrEqualTo(7);
+        assertThat(statistics.get("maximumWeight")).isEqualTo(DataSize.ofKilobytes(64).toBytes());
+    }
+
+    @Test
+    void cacheManager_ShouldCreateUnlistedCachesWithDefaults() {
+        CacheManager cacheManager = new CacheConfig().cacheManager(new CacheProperties());
+
+        Cache cache = cacheManager.getCache("collectionCounts");
+
+        assertThat(cache).isInstanceOf(CoalescingCache.class);
+        assertThat(cacheManager.getCacheNames()).contains("collectionCounts");
+        assertThat(CacheWeigher.estimate(post("p1", 1000))).isGreaterThan(1000).isLessThan(1500);
+    }
+}
@@ -0,0 +1,134 @@
+package org.johndoe.kitchensink.config;
+
+import org.junit.jupiter.api.Test;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingCacheTest {
+
+    private final CoalescingCache cache = new CoalescingCache(new ConcurrentMapCache("posts"));
+
+    @Test
+    void get_ShouldRunOneLoad_WhenMissesAreConcurrent() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("p1", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+                return "post";
+            })));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("p1", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while ((long) cache.getStatistics().get("coalescedLoads") < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("post");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getStatistics())
+                .containsEntry("loads", 1L)
+                .containsEntry("coalescedLoads", (long) callers - 1)
+                .containsEntry("inFlightLoads", 0);
+    }
+
+    @Test
+    void get_ShouldServeCachedValue_WithoutLoading() {
+        cache.put("p1", "post");
+
+        assertThat(cache.get("p1", () -> "other")).isEqualTo("post");
+        assertThat(cache.getStatistics()).containsEntry("hits", 1L).containsEntry("loads", 0L);
+    }
+
+    @Test
+    void get_ShouldNotCacheFailedLoad() {
+        IllegalStateException failure = new IllegalStateException("down");
+
+        assertThatThrownBy(() -> cache.get("p1", () -> {
+            throw failure;
+        })).isInstanceOf(Cache.ValueRetrievalException.class).hasCause(failure);
+
+        assertThat(cache.get("p1")).isNull();
+        assertThat(cache.get("p1", () -> "post")).isEqualTo("post");
+        assertThat(cache.getStatistics()).containsEntry("failedLoads", 1L).containsEntry("inFlightLoads", 0);
+    }
+
+    @Test
+    void get_ShouldServeStaleValueAndRefreshIt_WhenOlderThanRefreshAge() {
+        AtomicLong nanos = new AtomicLong();
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(10)).ticker(nanos::get).recordStats().build();
+        CoalescingCache refreshing = new CoalescingCache(new CaffeineCache("posts", nativeCache), Duration.ofMinutes(2), Runnable::run);
+        refreshing.put("p1", "old");
+
+        assertThat(refreshing.get("p1", () -> "new")).isEqualTo("old");
+        nanos.addAndGet(Duration.ofMinutes(3).toNanos());
+        assertThat(refreshing.get("p1", () -> "new")).isEqualTo("old");
+
+        assertThat(refreshing.get("p1").get()).isEqualTo("new");
+        assertThat(refreshing.getStatistics()).containsEntry("refreshes", 1L).containsEntry("inFlightLoads", 0);
+        assertThat((Map<String, Object>) refreshing.getStatistics().get("cache")).containsEntry("estimatedSize", 1L);
+    }
+
+    @Test
+    void computeIfPresent_ShouldKeepRefreshInFlightFromOverwritingTheUpdate() {
+        AtomicLong nanos = new AtomicLong();
+        List<Runnable> refreshes = new ArrayList<>();
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(10)).ticker(nanos::get).build();
+        CoalescingCache refreshing = new CoalescingCache(new CaffeineCache("posts", nativeCache), Duration.ofMinutes(2), refreshes::add);
+        refreshing.put("p1", "old");
+        nanos.addAndGet(Duration.ofMinutes(3).toNanos());
+        refreshing.get("p1", () -> "snapshot");
+
+        refreshing.computeIfPresent("p1", (key, value) -> value + " appended");
+        refreshes.forEach(Runnable::run);
+
+        assertThat(refreshing.get("p1").get()).isEqualTo("old appended");
+        assertThat(refreshing.getStatistics()).containsEntry("refreshes", 1L).containsEntry("inFlightLoads", 0);
+    }
+
+    @Test
+    void get_ShouldNotStoreLoadedValue_WhenKeyIsEvictedDuringLoad() {
+        assertThat(cache.get("p1", () -> {
+            cache.evict("p1");
+            return "stale";
+        })).isEqualTo("stale");
+
+        assertThat(cache.get("p1")).isNull();
+    }
+}
@@ -0,0 +1,110 @@
+package org.johndoe.kitchensink.config;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Member;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MaskedContactMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MigrationMarkers migrationMarkers;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private MaskedContactMigration maskedContactMigration;
+
+    @BeforeEach
+    void setUp() {
+        maskedContactMigration.enabled = true;
+    }
+
+    @Test
+    void run_ShouldBackfillMasks_AndRecordCompletion() {
+        when(mongoTemplate.getCollectionName(Member.class)).thenReturn("members");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("members"))).thenReturn(Stream.of(
+                new Document("_id", "m1").append("email", "john.doe@example.com").append("phone_number", "9876543210")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Member.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        maskedContactMigration.run();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        InOrder order = inOrder(bulkOperations, migrationMarkers);
+        order.verify(bulkOperations).updateOne(any(Query.class), update.capture());
+        order.verify(bulkOperations).execute();
+        order.verify(migrationMarkers).markCompleted(MaskedContactMigration.NAME);
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("masked_email", "j****e@example.com")
+                .containsEntry("masked_phone", "98****10");
+    }
+
+    @Test
+    void run_ShouldRecordCompletion_WhenNothingIsLeftToBackfill() {
+        when(mongoTemplate.getCollectionName(Member.class)).thenReturn("members");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("members"))).thenReturn(Stream.empty());
+
+        maskedContactMigration.run();
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Member.class));
+        verify(migrationMarkers).markCompleted(MaskedContactMigration.NAME);
+    }
+
+    @Test
+    void run_ShouldSkipTheScan_OnceCompleted() {
+        when(migrationMarkers.isCompleted(MaskedContactMigration.NAME)).thenReturn(true);
+
+        maskedContactMigration.run();
+
+        verifyNoInteractions(mongoTemplate);
+        verify(migrationMarkers, never()).markCompleted(anyString());
+    }
+
+    @Test
+    void run_ShouldLeaveNoMarker_WhenTheBackfillFails() {
+        when(mongoTemplate.getCollectionName(Member.class)).thenReturn("members");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("members")))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThatThrownBy(() -> maskedContactMigration.run()).isInstanceOf(DataAccessResourceFailureException.class);
+
+        verify(migrationMarkers, never()).markCompleted(anyString());
+    }
+
+    @Test
+    void run_ShouldDoNothing_WhenDisabled() {
+        maskedContactMigration.enabled = false;
+
+        maskedContactMigration.run();
+
+        verifyNoInteractions(mongoTemplate, migrationMarkers);
+    }
+}
@@ -0,0 +1,82 @@
+package org.johndoe.kitchensink.config;
+
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Member;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberIdentityCheckTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MigrationMarkers migrationMarkers;
+
+    @InjectMocks
+    private MemberIdentityCheck memberIdentityCheck;
+
+    @Test
+    void findDuplicates_ShouldGroupValuesUnderTheCaseInsensitiveCollation() {
+        Document group = new Document("_id", "john").append("count", 2).append("values", List.of("john", "John"));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Member.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(group), new Document()));
+
+        List<List<String>> duplicates = memberIdentityCheck.findDuplicates("username");
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(Member.class), eq(Document.class));
+        assertThat(aggregation.getValue().getOptions().getCollation()).hasValueSatisfying(collation ->
+                assertThat(collation.toDocument()).containsEntry("locale", "en").containsEntry("strength", 2));
+        assertThat(duplicates).containsExactly(List.of("john", "John"));
+    }
+
+    @Test
+    void run_ShouldDoNothing_WhenDisabled() {
+        memberIdentityCheck.enabled = false;
+
+        memberIdentityCheck.run();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void run_ShouldSkipTheCheck_OnceItFoundNoDuplicates() {
+        memberIdentityCheck.enabled = true;
+        when(migrationMarkers.isCompleted(MemberIdentityCheck.NAME)).thenReturn(true);
+
+        memberIdentityCheck.run();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void run_ShouldRecordCompletion_OnlyWhenNoDuplicatesAreFound() {
+        memberIdentityCheck.enabled = true;
+        Document group = new Document("_id", "john").append("count", 2).append("values", List.of("john", "John"));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Member.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(group), new Document()))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        memberIdentityCheck.run();
+        verify(migrationMarkers, never()).markCompleted(any());
+
+        memberIdentityCheck.run();
+        verify(migrationMarkers).markCompleted(MemberIdentityCheck.NAME);
+    }
+}
@@ -0,0 +1,49 @@
+package org.johndoe.kitchensink.config;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MigrationMarkersTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private MigrationMarkers migrationMarkers;
+
+    @Test
+    void isCompleted_ShouldLookUpTheMarkerById() {
+        when(mongoTemplate.exists(any(Query.class), eq(MigrationMarkers.COLLECTION))).thenReturn(true);
+
+        assertThat(migrationMarkers.isCompleted("masked-contacts")).isTrue();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).exists(query.capture(), eq(MigrationMarkers.COLLECTION));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", "masked-contacts"));
+    }
+
+    @Test
+    void markCompleted_ShouldUpsertTheMarker() {
+        migrationMarkers.markCompleted("masked-contacts");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(MigrationMarkers.COLLECTION));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", "masked-contacts"));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class)).containsKey("completedAt");
+    }
+}
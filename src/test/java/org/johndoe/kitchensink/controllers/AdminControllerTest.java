@@ -1,6 +1,7 @@
 package org.johndoe.kitchensink.controllers;
 
 import org.jetbrains.annotations.NotNull;
+import org.johndoe.kitchensink.dtos.FieldSelection;
 import org.johndoe.kitchensink.dtos.MemberDto;
 import org.johndoe.kitchensink.services.AdminService;
 import org.johndoe.kitchensink.services.MemberService;
@@ -92,7 +93,7 @@ class AdminControllerTest {
         PageRequest pageable = PageRequest.of(0, 10); // ✅ Concrete implementation
         Page<MemberDto> page = new PageImpl<>(Collections.singletonList(member), pageable, 1);
 
-        when(memberService.findAllMembers(any(PageRequest.class))).thenReturn(page);
+        when(memberService.findAllMembers(any(PageRequest.class), eq(FieldSelection.ALL))).thenReturn(page);
 
         mockMvc.perform(get("/api/admin/users")
                         .param("page", "0")  // ✅ Provide pagination parameters
@@ -102,7 +103,7 @@ class AdminControllerTest {
                 .andExpect(jsonPath("$.totalPages").exists())
                 .andExpect(jsonPath("$.content").isArray());
 
-        verify(memberService, times(1)).findAllMembers(any(PageRequest.class));
+        verify(memberService, times(1)).findAllMembers(any(PageRequest.class), eq(FieldSelection.ALL));
     }
 
     @Test
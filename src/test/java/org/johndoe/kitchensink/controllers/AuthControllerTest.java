@@ -1,5 +1,6 @@
 package org.johndoe.kitchensink.controllers;
 
+import org.johndoe.kitchensink.dtos.MemberConflicts;
 import org.johndoe.kitchensink.dtos.MemberDto;
 import org.johndoe.kitchensink.dtos.requests.AuthRequest;
 import org.johndoe.kitchensink.dtos.requests.AuthResponse;
@@ -84,6 +85,7 @@ class AuthControllerTest {
         MemberDto member = new MemberDto(1L, "jane.doe", "Jane", "Doe", "jane.doe@email.com", "9876543211", "user");
 
         when(authService.register(any(MemberDto.class))).thenReturn(Mono.empty());
+        when(memberService.findConflicts(any(MemberDto.class))).thenReturn(MemberConflicts.NONE);
 
         mockMvc.perform(post("/api/auth/register")
                         .with(SecurityMockMvcRequestPostProcessors.csrf())
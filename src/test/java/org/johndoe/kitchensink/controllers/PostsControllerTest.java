@@ -2,8 +2,10 @@ package org.johndoe.kitchensink.controllers;
 
 import org.johndoe.kitchensink.config.CorsConfig;
 import org.johndoe.kitchensink.dtos.CommentDto;
+import org.johndoe.kitchensink.dtos.FieldSelection;
 import org.johndoe.kitchensink.dtos.PostDto;
 import org.johndoe.kitchensink.security.SecurityConfig;
+import org.johndoe.kitchensink.services.CommentStreamService;
 import org.johndoe.kitchensink.services.PostService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +16,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -22,7 +25,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Optional;
 
+import static org.johndoe.kitchensink.utils.UtilityMethods.entityTag;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +43,9 @@ class PostsControllerTest {
     @MockitoBean
     private PostService postService;
 
+    @MockitoBean
+    private CommentStreamService commentStreamService;
+
     @MockitoBean
     private CorsConfig corsConfig;
 
@@ -47,11 +55,68 @@ class PostsControllerTest {
         PageRequest pageable = PageRequest.of(0, 10);
         Page<PostDto> page = new PageImpl<>(Collections.singletonList(new PostDto("1", "Test Title", "Test Content", null, LocalDateTime.now(), Collections.emptyList())), pageable, 1);
 
-        when(postService.getAllPosts(any(PageRequest.class))).thenReturn(page);
+        when(postService.getAllPosts(any(PageRequest.class), eq(FieldSelection.ALL))).thenReturn(page);
 
         mockMvc.perform(get("/api/posts").param("page", "0").param("size", "10").contentType(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andExpect(jsonPath("$.content").isArray());
 
-        verify(postService, times(1)).getAllPosts(any(PageRequest.class));
+        verify(postService, times(1)).getAllPosts(any(PageRequest.class), eq(FieldSelection.ALL));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = {"USER", "ADMIN"})
+    void testGetAllPosts_NotModified_WhenTheEntityTagMatches() throws Exception {
+        when(postService.getPostsVersion()).thenReturn("7");
+        when(postService.getAllPosts(any(PageRequest.class), eq(FieldSelection.ALL)))
+                .thenReturn(new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 10), 0));
+        String tag = mockMvc.perform(get("/api/posts")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag))
+                .andExpect(content().string(""));
+
+        verify(postService, times(1)).getAllPosts(any(PageRequest.class), eq(FieldSelection.ALL));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = {"USER", "ADMIN"})
+    void testGetPost_NotModified_WhenTheEntityTagMatches() throws Exception {
+        String tag = entityTag("1", 5L);
+        when(postService.findCommentsVersion("1")).thenReturn(Optional.of(5L));
+
+        mockMvc.perform(get("/api/posts/1").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag))
+                .andExpect(content().string(""));
+
+        verify(postService, never()).getPostById(any());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = {"USER", "ADMIN"})
+    void testGetPost_NotModified_WhenAWeakEntityTagMatches() throws Exception {
+        String tag = entityTag("1", 5L);
+        when(postService.findCommentsVersion("1")).thenReturn(Optional.of(5L));
+
+        mockMvc.perform(get("/api/posts/1").header(HttpHeaders.IF_NONE_MATCH, "W/" + tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = {"USER", "ADMIN"})
+    void testGetPost_ReturnsThePost_WhenTheEntityTagDiffers() throws Exception {
+        PostDto post = new PostDto("1", "Test Title", "Test Content", null, LocalDateTime.now(), Collections.emptyList());
+        post.setCommentsVersion(6L);
+        when(postService.findCommentsVersion("1")).thenReturn(Optional.of(6L));
+        when(postService.getPostById("1")).thenReturn(Optional.of(post));
+
+        mockMvc.perform(get("/api/posts/1").header(HttpHeaders.IF_NONE_MATCH, entityTag("1", 5L)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, entityTag("1", 6L)))
+                .andExpect(jsonPath("$.title").value("Test Title"));
     }
 
     @Test
@@ -0,0 +1,92 @@
+package org.johndoe.kitchensink.controllers;
+
+import org.johndoe.kitchensink.config.CorsConfig;
+import org.johndoe.kitchensink.dtos.MemberDto;
+import org.johndoe.kitchensink.security.SecurityConfig;
+import org.johndoe.kitchensink.services.KeycloakAuthService;
+import org.johndoe.kitchensink.services.MemberService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.johndoe.kitchensink.utils.UtilityMethods.entityTag;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProfileController.class)
+@Import(SecurityConfig.class)
+class ProfileControllerTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private MemberService memberService;
+
+    @MockitoBean
+    private KeycloakAuthService keycloakAuthService;
+
+    @MockitoBean
+    private CorsConfig corsConfig;
+
+    private MemberDto profile;
+
+    @BeforeEach
+    void setUp() {
+        profile = new MemberDto(1L, "john.doe", "John", "Doe", "john.doe@example.com", "9876543210", "USER");
+        profile.setUpdatedAt(UPDATED_AT);
+    }
+
+    private static RequestPostProcessor johnDoe() {
+        return jwt().jwt(token -> token.claim("preferred_username", "john.doe")).authorities(new SimpleGrantedAuthority("ROLE_USER"));
+    }
+
+    @Test
+    void testGetUserProfile_NotModified_WhenTheEntityTagMatches() throws Exception {
+        String tag = entityTag("john.doe", UPDATED_AT);
+        when(memberService.findMemberUpdatedAt("john.doe")).thenReturn(Optional.of(UPDATED_AT));
+
+        mockMvc.perform(get("/api/dashboard/profile").with(johnDoe()).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag))
+                .andExpect(content().string(""));
+
+        verify(memberService, never()).findMemberByName(any());
+    }
+
+    @Test
+    void testGetUserProfile_NotModified_WhenAWeakEntityTagMatches() throws Exception {
+        String tag = entityTag("john.doe", UPDATED_AT);
+        when(memberService.findMemberUpdatedAt("john.doe")).thenReturn(Optional.of(UPDATED_AT));
+
+        mockMvc.perform(get("/api/dashboard/profile").with(johnDoe()).header(HttpHeaders.IF_NONE_MATCH, "W/" + tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetUserProfile_ReturnsTheProfile_WhenTheEntityTagDiffers() throws Exception {
+        when(memberService.findMemberUpdatedAt("john.doe")).thenReturn(Optional.of(UPDATED_AT));
+        when(memberService.findMemberByName("john.doe")).thenReturn(profile);
+
+        mockMvc.perform(get("/api/dashboard/profile").with(johnDoe()).header(HttpHeaders.IF_NONE_MATCH, entityTag("john.doe", UPDATED_AT.minusDays(1))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, entityTag("john.doe", UPDATED_AT)))
+                .andExpect(jsonPath("$.username").value("john.doe"));
+    }
+}
@@ -0,0 +1,38 @@
+package org.johndoe.kitchensink.dtos;
+
+import org.johndoe.kitchensink.exceptions.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSelectionTest {
+
+    @Test
+    void parse_ShouldSelectEverything_WhenBlank() {
+        assertTrue(FieldSelection.parse(null, PostDto.FIELDS).isAll());
+        assertTrue(FieldSelection.parse(" , ", PostDto.FIELDS).isAll());
+    }
+
+    @Test
+    void parse_ShouldKeepRequestedFields() {
+        FieldSelection selection = FieldSelection.parse("id, title", PostDto.FIELDS);
+
+        assertEquals(Set.of("id", "title"), selection.fields());
+        assertTrue(selection.includes("title"));
+        assertFalse(selection.includes("content"));
+    }
+
+    @Test
+    void parse_ShouldRejectUnknownFields() {
+        assertThrows(ValidationException.class, () -> FieldSelection.parse("title,password", PostDto.FIELDS));
+    }
+
+    @Test
+    void toEntityProperties_ShouldMapSelectedFields() {
+        assertNull(PostDto.Mapper.toEntityProperties(FieldSelection.ALL));
+        assertEquals(List.of("author", "member"), PostDto.Mapper.toEntityProperties(FieldSelection.of("id", "member")));
+    }
+}
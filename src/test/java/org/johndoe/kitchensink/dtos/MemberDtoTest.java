@@ -1,5 +1,6 @@
 package org.johndoe.kitchensink.dtos;
 
+import org.johndoe.kitchensink.documents.AuthorSnapshot;
 import org.johndoe.kitchensink.documents.Member;
 import org.johndoe.kitchensink.utils.UtilityMethods;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,6 +33,42 @@ class MemberDtoTest {
         assertEquals("pass", memberDto.getRepeatPasswordAsString());
     }
 
+    @Test
+    void testFromAuthor_UsesSnapshot() {
+        Member member = new Member(1L, "testuser", "John", "Doe", "john.doe@example.com", "9876543210", "USER");
+        AuthorSnapshot author = AuthorSnapshot.of(member);
+
+        MemberDto dto = MemberDto.Mapper.fromAuthor(author, null);
+
+        assertEquals("testuser", dto.getUsername());
+        assertEquals("j****e@example.com", dto.getEmail());
+        assertEquals("98****10", dto.getPhoneNumber());
+        assertEquals("john.doe@example.com", member.getEmail());
+    }
+
+    @Test
+    void testFromAuthor_FallsBackToMember() {
+        Member member = new Member(1L, "testuser", "John", "Doe", "john.doe@example.com", "9876543210", "USER");
+
+        MemberDto dto = MemberDto.Mapper.fromAuthor(null, member);
+
+        assertEquals("testuser", dto.getUsername());
+        assertEquals("j****e@example.com", dto.getEmail());
+    }
+
+    @Test
+    void testAuthorSnapshot_DisplaysOnlyTheNamePartsSet() {
+        Member member = new Member(1L, "testuser", "John", null, "john.doe@example.com", "9876543210", "USER");
+        assertEquals("John", AuthorSnapshot.of(member).getDisplayName());
+
+        member.setFirstName(" ");
+        member.setLastName("Doe");
+        assertEquals("Doe", AuthorSnapshot.of(member).getDisplayName());
+
+        member.setLastName(null);
+        assertEquals("testuser", AuthorSnapshot.of(member).getDisplayName());
+    }
+
     @Test
     void testToEntity() {
         Member member = MemberDto.Mapper.toEntity(memberDto);
@@ -60,10 +97,10 @@ class MemberDtoTest {
 
     @Test
     void testFromEntity_WithMasking() {
-        Member member = new Member(1L, "testuser", "John", "Doe", "john.doe@example.com", "9876543210", "USER");
         try (MockedStatic<UtilityMethods> utilities = Mockito.mockStatic(UtilityMethods.class)) {
             utilities.when(() -> UtilityMethods.maskEmail("john.doe@example.com")).thenReturn("j****@example.com");
             utilities.when(() -> UtilityMethods.maskPhone("9876543210")).thenReturn("98******10");
+            Member member = new Member(1L, "testuser", "John", "Doe", "john.doe@example.com", "9876543210", "USER");
 
             MemberDto dto = MemberDto.Mapper.fromEntity(member, true);
             assertNotNull(dto);
@@ -71,4 +108,30 @@ class MemberDtoTest {
             assertEquals("98******10", dto.getPhoneNumber());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFromEntity_WithMasking_LeavesMemberUntouched() {
+        Member member = new Member(1L, "testuser", "John", "Doe", "john.doe@example.com", "9876543210", "USER");
+
+        MemberDto first = MemberDto.Mapper.fromEntity(member, true);
+        MemberDto second = MemberDto.Mapper.fromEntity(member, true);
+
+        assertEquals("john.doe@example.com", member.getEmail());
+        assertEquals("9876543210", member.getPhoneNumber());
+        assertEquals("j****e@example.com", second.getEmail());
+        assertEquals("98****10", second.getPhoneNumber());
+        assertSame(first.getEmail(), second.getEmail());
+    }
+
+    @Test
+    void testFromEntity_WithMasking_FollowsContactChanges() {
+        Member member = new Member(1L, "testuser", "John", "Doe", "john.doe@example.com", "9876543210", "USER");
+        member.setEmail("ab@example.org");
+        member.setPhoneNumber("123");
+
+        MemberDto dto = MemberDto.Mapper.fromEntity(member, true);
+
+        assertEquals("a****@example.org", dto.getEmail());
+        assertEquals("****", dto.getPhoneNumber());
+    }
+}
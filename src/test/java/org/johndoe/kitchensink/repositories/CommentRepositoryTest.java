@@ -69,6 +69,22 @@ class CommentRepositoryTest {
         assertThat(comments.get(0).getCommentId()).isEqualTo("comment1");
     }
 
+    @Test
+    void testFindByPostIdIn() {
+        List<Comment> comments = commentRepository.findByPostIdIn(List.of("post1", "post2"), Sort.by(Sort.Direction.ASC, "createdAt"));
+        assertThat(comments).extracting(Comment::getCommentId).containsExactly("comment1", "comment2");
+    }
+
+    @Test
+    void testFindCommentsBefore() {
+        List<Comment> firstPage = commentRepository.findCommentsBefore("post1", null, null, 1);
+        assertThat(firstPage).extracting(Comment::getCommentId).containsExactly("comment2");
+
+        Comment last = firstPage.get(0);
+        List<Comment> secondPage = commentRepository.findCommentsBefore("post1", last.getCreatedAt(), last.getCommentId(), 1);
+        assertThat(secondPage).extracting(Comment::getCommentId).containsExactly("comment1");
+    }
+
     @Test
     void testFindByMember() {
         List<Comment> comments = commentRepository.findByMember(testMember);
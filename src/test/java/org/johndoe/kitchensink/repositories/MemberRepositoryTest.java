@@ -2,6 +2,7 @@ package org.johndoe.kitchensink.repositories;
 
 import org.johndoe.kitchensink.config.MongoTestConfig;
 import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.dtos.MemberConflicts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -75,6 +76,31 @@ class MemberRepositoryTest {
         assertThat(member).isPresent();
     }
 
+    @Test
+    void testFindByUsername_IgnoresCaseButMatchesExactly() {
+        assertThat(memberRepository.findByUsername("JOHN_DOE")).isPresent();
+        assertThat(memberRepository.findByEmail("John.Doe@Email.com")).isPresent();
+        assertThat(memberRepository.findByUsername("john")).isEmpty();
+        assertThat(memberRepository.findByUsername("john_.*")).isEmpty();
+    }
+
+    @Test
+    void testFindRecordsWithConflictingEmailOrPhoneNumber() {
+        assertThat(memberRepository.findRecordsWithConflictingEmailOrPhoneNumber("JOHN.DOE@email.com", null, "jane_doe")).isPresent();
+        assertThat(memberRepository.findRecordsWithConflictingEmailOrPhoneNumber(null, "1234567890", "jane_doe")).isPresent();
+        assertThat(memberRepository.findRecordsWithConflictingEmailOrPhoneNumber("john.doe@email.com", "1234567890", "John_Doe")).isEmpty();
+        assertThat(memberRepository.findRecordsWithConflictingEmailOrPhoneNumber("john.*", "0987654321", "jane_doe")).isEmpty();
+    }
+
+    @Test
+    void testFindConflicts_ReportsEachTakenField() {
+        assertThat(memberRepository.findConflicts("JOHN_DOE", "jane.doe@email.com", "1234567890"))
+                .isEqualTo(new MemberConflicts(true, false, true));
+        assertThat(memberRepository.findConflicts("jane_doe", "John.Doe@email.com", null))
+                .isEqualTo(new MemberConflicts(false, true, false));
+        assertThat(memberRepository.findConflicts("jane_doe", "jane.doe@email.com", "0987654321")).isEqualTo(MemberConflicts.NONE);
+    }
+
     @Test
     void testFindTopByOrderByMemberIdDesc() {
         Member anotherMember = new Member();
@@ -1,20 +1,28 @@
 package org.johndoe.kitchensink.repositories;
 
 import org.johndoe.kitchensink.config.MongoTestConfig;
+import org.johndoe.kitchensink.documents.Comment;
 import org.johndoe.kitchensink.documents.Member;
 import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.documents.PostFeedEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.utility.DockerImageName;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -33,6 +41,10 @@ class PostRepositoryTest {
     private PostRepository postRepository;
     @Autowired
     private MemberRepository memberRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
     private Member testMember;
     private Post post1, post2;
 
@@ -44,6 +56,7 @@ class PostRepositoryTest {
     @BeforeEach
     void setUp() {
         postRepository.deleteAll(); // Clean existing posts
+        commentRepository.deleteAll(); // Clean existing comments
         memberRepository.deleteAll(); // Clean existing members
 
         testMember = new Member();
@@ -72,10 +85,94 @@ class PostRepositoryTest {
     }
 
     @Test
-    void testFindByTitleContainingIgnoreCase() {
-        List<Post> posts = postRepository.findByTitleContainingIgnoreCase("keyword");
+    void testSearchPosts() {
+        // Automatic index creation is off; build the declared indexes, including the text index.
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Post.class).forEach(mongoTemplate.indexOps(Post.class)::ensureIndex);
+
+        List<Post> posts = postRepository.searchPosts("keyword", null, null, 10, Duration.ofSeconds(1));
+
         assertThat(posts).hasSize(1);
         assertThat(posts.get(0).getTitle()).containsIgnoringCase("keyword");
+        assertThat(posts.get(0).getScore()).isPositive();
+    }
+
+    @Test
+    void testFindFeed() {
+        commentRepository.saveAll(List.of(
+                new Comment("c1", testMember, "post2", "first"),
+                new Comment("c2", testMember, "post2", "second"),
+                new Comment("c3", testMember, "post2", "third")));
+        postRepository.recountComments("post2");
+
+        Slice<PostFeedEntry> feed = postRepository.findFeed(PageRequest.of(0, 10), 2, null);
+
+        assertThat(feed.getContent()).hasSize(2);
+        PostFeedEntry latest = feed.getContent().get(0);
+        assertThat(latest.getPost().getPostId()).isEqualTo("post2");
+        assertThat(latest.getCommentCount()).isEqualTo(3);
+        assertThat(latest.getLatestComments()).hasSize(2);
+        assertThat(feed.getContent().get(1).getCommentCount()).isZero();
+        assertThat(feed.hasNext()).isFalse();
+    }
+
+    @Test
+    void testFindFeed_WithOnlyTheIdField() {
+        commentRepository.save(new Comment("c1", testMember, "post2", "first"));
+        postRepository.recountComments("post2");
+
+        Slice<PostFeedEntry> feed = postRepository.findFeed(PageRequest.of(0, 10), 2, List.of());
+
+        assertThat(feed.getContent()).hasSize(2);
+        PostFeedEntry latest = feed.getContent().get(0);
+        assertThat(latest.getPost().getPostId()).isEqualTo("post2");
+        assertThat(latest.getPost().getTitle()).isNull();
+        assertThat(latest.getLatestComments()).hasSize(1);
+    }
+
+    @Test
+    void testFindAllWithProjection() {
+        Slice<Post> page = postRepository.findSlice(PageRequest.of(0, 1), List.of("title"));
+
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.getContent()).hasSize(1).allSatisfy(post -> {
+            assertThat(post.getTitle()).isNotNull();
+            assertThat(post.getContent()).isNull();
+        });
+    }
+
+    @Test
+    void testFindPostsBefore() {
+        List<Post> firstPage = postRepository.findPostsBefore(null, null, 1, null);
+        assertThat(firstPage).extracting(Post::getPostId).containsExactly("post2");
+
+        Post last = firstPage.get(0);
+        List<Post> secondPage = postRepository.findPostsBefore(last.getCreatedAt(), last.getPostId(), 1, null);
+        assertThat(secondPage).extracting(Post::getPostId).containsExactly("post1");
+    }
+
+    @Test
+    void testRecountComments() {
+        commentRepository.saveAll(List.of(
+                new Comment("c1", testMember, "post1", "first"),
+                new Comment("c2", testMember, "post1", "second")));
+        assertThat(postRepository.recountComments("post1")).map(Post::getCommentCount).contains(2L);
+        commentRepository.deleteById("c1");
+        Optional<Post> counters = postRepository.recountComments("post1");
+        assertThat(counters).map(Post::getCommentCount).contains(1L);
+        assertThat(counters).map(Post::getCommentsVersion).contains(2L);
+        assertThat(postRepository.recountComments("missing")).isEmpty();
+    }
+
+    @Test
+    void testFindFirstByOrderByCommentCountDesc() {
+        commentRepository.saveAll(List.of(
+                new Comment("c1", testMember, "post1", "first"),
+                new Comment("c2", testMember, "post1", "second"),
+                new Comment("c3", testMember, "post2", "third")));
+        postRepository.recountComments("post1");
+        postRepository.recountComments("post2");
+        assertThat(postRepository.findFirstByOrderByCommentCountDesc()).map(Post::getPostId).contains("post1");
     }
 
     @Test
@@ -13,10 +13,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,6 +40,27 @@ class AdminServiceTest {
     @Mock
     private KeycloakAuthService keycloakService;
 
+    @Mock
+    private MemberReferenceResolver memberReferenceResolver;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private IndexCatalogService indexCatalogService;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    @Mock
+    private PostExportService postExportService;
+
+    @Mock
+    private BulkImportService bulkImportService;
+
+    @Mock
+    private MemberIdentityFilter memberIdentityFilter;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -72,9 +95,9 @@ class AdminServiceTest {
         when(memberService.findAllMembersAsEntity()).thenReturn(List.of(testMember));
         when(postRepository.findByMemberOrderByCreatedAtDesc(testMember)).thenReturn(List.of(post1, post2));
 
-        when(commentRepository.countByPostId("post1")).thenReturn(5);
-        when(commentRepository.countByPostId("post2")).thenReturn(10);
-        when(postRepository.findAll()).thenReturn(List.of(post1, post2));
+        post1.setCommentCount(5);
+        post2.setCommentCount(10);
+        when(postRepository.findFirstByOrderByCommentCountDesc()).thenReturn(Optional.of(post2));
 
         Map<String, Object> analytics = adminService.getAnalytics();
 
@@ -85,6 +108,8 @@ class AdminServiceTest {
 
         Map<String, Object> topPost = (Map<String, Object>) analytics.get("topPost");
         assertThat(topPost).containsEntry("postId", "post2");
+        assertThat(topPost).containsEntry("totalComments", 10L);
+        verify(commentRepository, never()).countByPostId(anyString());
     }
 
     @Test
@@ -94,7 +119,7 @@ class AdminServiceTest {
         when(commentRepository.count()).thenReturn(0L);
 
         when(memberService.findAllMembersAsEntity()).thenReturn(Collections.emptyList());
-        when(postRepository.findAll()).thenReturn(Collections.emptyList());
+        when(postRepository.findFirstByOrderByCommentCountDesc()).thenReturn(Optional.empty());
 
         Map<String, Object> analytics = adminService.getAnalytics();
 
@@ -114,7 +139,7 @@ class AdminServiceTest {
 
         when(memberService.findAllMembersAsEntity()).thenReturn(List.of(testMember));
         when(postRepository.findByMemberOrderByCreatedAtDesc(testMember)).thenReturn(Collections.emptyList());
-        when(postRepository.findAll()).thenReturn(Collections.emptyList());
+        when(postRepository.findFirstByOrderByCommentCountDesc()).thenReturn(Optional.empty());
 
         Map<String, Object> analytics = adminService.getAnalytics();
 
@@ -126,6 +151,15 @@ class AdminServiceTest {
         assertThat(analytics).doesNotContainKey("topPost");
     }
 
+    @Test
+    void testRebuildIdentityFilter_ReportsTheRebuiltFilter() {
+        when(memberIdentityFilter.getStatistics()).thenReturn(Map.of("ready", true, "maxBytes", 4_194_304L));
+
+        assertThat(adminService.rebuildIdentityFilter()).containsEntry("ready", true);
+
+        verify(memberIdentityFilter).rebuild();
+    }
+
     @Test
     void testAssignAdminRoles() {
         when(memberService.findMemberEntityByName("john_doe")).thenReturn(testMember);
@@ -0,0 +1,67 @@
+package org.johndoe.kitchensink.services;
+
+import com.mongodb.client.result.UpdateResult;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.events.MemberUpdatedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorSnapshotServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private AuthorSnapshotService authorSnapshotService;
+
+    @Test
+    void onMemberUpdated_ShouldResyncPostsAndComments() {
+        Member member = new Member(7L, "john.doe", "Johnny", "Doe", "john.doe@email.com", "9876543210", "user");
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Post.class))).thenReturn(UpdateResult.acknowledged(2, 2L, null));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Comment.class))).thenReturn(UpdateResult.acknowledged(5, 5L, null));
+
+        authorSnapshotService.onMemberUpdated(new MemberUpdatedEvent(member));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Post.class));
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(Comment.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("author.memberId", 7L);
+        assertThat(update.getValue().modifies("author")).isTrue();
+    }
+
+    @Test
+    void resync_ShouldBumpTheCommentsVersionOfAuthoredAndCommentedPosts() {
+        Member member = new Member(7L, "john.doe", "Johnny", "Doe", "john.doe@email.com", "9876543210", "user");
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Post.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Comment.class))).thenReturn(UpdateResult.acknowledged(2, 2L, null));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("postId"), eq(Comment.class), eq(String.class))).thenReturn(List.of("p1", "p2"));
+
+        authorSnapshotService.resync(member);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(query.capture(), update.capture(), eq(Post.class));
+        assertThat(update.getAllValues()).allMatch(bump -> bump.modifies("commentsVersion"));
+        assertThat(query.getAllValues().get(1).getQueryObject().toJson()).contains("p1").contains("p2");
+    }
+}
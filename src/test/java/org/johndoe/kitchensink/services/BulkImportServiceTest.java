@@ -0,0 +1,122 @@
+package org.johndoe.kitchensink.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.dtos.ImportReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkImportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations postBulk;
+
+    @Mock
+    private BulkOperations commentBulk;
+
+    @Mock
+    private PostCacheWriter postCacheWriter;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    @Mock
+    private CommentCountReconciler commentCountReconciler;
+
+    private BulkImportService bulkImportService;
+
+    @BeforeEach
+    void setUp() {
+        bulkImportService = new BulkImportService(mongoTemplate, new ObjectMapper().findAndRegisterModules(), postCacheWriter, postSearchIndex, commentCountReconciler);
+        Member john = new Member(1L, "john.doe", "John", "Doe", "john.doe@email.com", "9876543210", "USER");
+        john.setId("m1");
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of(john));
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importRecords_ShouldWriteValidRecordsInBulk_AndReportTheOthers() throws Exception {
+        Post existing = new Post();
+        existing.setPostId("p5");
+        when(mongoTemplate.find(any(Query.class), eq(Post.class))).thenReturn(List.of(existing));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(postBulk);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Comment.class)).thenReturn(commentBulk);
+        when(postBulk.insert(anyList())).thenReturn(postBulk);
+        when(commentBulk.insert(anyList())).thenReturn(commentBulk);
+
+        ImportReport report = bulkImportService.importRecords(ndjson(
+                "{\"type\":\"post\",\"id\":\"p1\",\"username\":\"john.doe\",\"title\":\"Hello\",\"content\":\"World\",\"createdAt\":\"2020-01-01T10:00:00\"}",
+                "{\"type\":\"comment\",\"postId\":\"p1\",\"username\":\"JOHN.DOE\",\"content\":\"First!\"}",
+                "{not json",
+                "{\"type\":\"comment\",\"postId\":\"p9\",\"username\":\"john.doe\",\"content\":\"Lost\"}",
+                "",
+                "{\"type\":\"post\",\"username\":\"john.doe\",\"content\":\"No title\"}",
+                "{\"type\":\"post\",\"username\":\"nobody\",\"title\":\"Hi\",\"content\":\"Who?\"}",
+                "{\"type\":\"comment\",\"postId\":\"p5\",\"username\":\"john.doe\",\"content\":\"Late reply\"}"));
+
+        assertThat(report.received()).isEqualTo(7);
+        assertThat(report.inserted()).isEqualTo(3);
+        assertThat(report.failed()).isEqualTo(4);
+        assertThat(report.errors()).extracting(ImportReport.RecordError::line).containsExactlyInAnyOrder(3L, 4L, 6L, 7L);
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Member.class));
+        verify(postBulk).insert(argThat((List<?> posts) -> posts.size() == 1
+                && ((Post) posts.get(0)).getCreatedAt().getYear() == 2020));
+        verify(commentBulk).insert(argThat((List<?> comments) -> comments.size() == 2));
+        verify(commentCountReconciler).reconcile(Set.of("p1", "p5"));
+        verify(postSearchIndex).add("p1", "Hello", "World");
+        verify(postCacheWriter).evict("p1");
+        verify(postCacheWriter).evict("p5");
+    }
+
+    @Test
+    void importRecords_ShouldReportDocumentsRejectedByTheServer() throws Exception {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(postBulk);
+        when(postBulk.insert(anyList())).thenReturn(postBulk);
+        MongoBulkWriteException duplicate = new MongoBulkWriteException(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 0)), null, new ServerAddress(), Set.of());
+        when(postBulk.execute()).thenThrow(new BulkOperationException("Bulk write failed", duplicate));
+
+        ImportReport report = bulkImportService.importRecords(ndjson(
+                "{\"type\":\"post\",\"id\":\"p1\",\"username\":\"john.doe\",\"title\":\"Hello\",\"content\":\"Again\"}",
+                "{\"type\":\"post\",\"id\":\"p2\",\"username\":\"john.doe\",\"title\":\"Hello\",\"content\":\"New\"}"));
+
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.errors()).containsExactly(new ImportReport.RecordError(1, "Duplicate ID"));
+        verify(postSearchIndex).add(eq("p2"), anyString(), anyString());
+        verify(postSearchIndex, never()).add(eq("p1"), anyString(), anyString());
+        verifyNoInteractions(postCacheWriter, commentCountReconciler);
+    }
+}
@@ -0,0 +1,148 @@
+package org.johndoe.kitchensink.services;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Post;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommentCountReconcilerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private CommentCountReconciler commentCountReconciler;
+
+    @Test
+    void reconcile_ShouldCorrectOnlyDriftedPosts() {
+        List<Document> counts = List.of(new Document("_id", "p1").append("count", 3), new Document("_id", "p2").append("count", 1));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Comment.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(counts, new Document()));
+        when(mongoTemplate.getCollectionName(Post.class)).thenReturn("posts");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("posts"))).thenReturn(Stream.of(
+                new Document("_id", "p1").append("commentCount", 3L),
+                new Document("_id", "p2").append("commentCount", 4L),
+                new Document("_id", "p3")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+
+        long corrected = commentCountReconciler.reconcile();
+
+        assertThat(corrected).isEqualTo(2);
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    void reconcile_ShouldGuardCorrectionsOnTheCommentsVersionRead() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Comment.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", "p1").append("count", 3)), new Document()));
+        when(mongoTemplate.getCollectionName(Post.class)).thenReturn("posts");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("posts")))
+                .thenReturn(Stream.of(new Document("_id", "p1").append("commentCount", 2L).append("commentsVersion", 7L)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        commentCountReconciler.reconcile();
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(Comment.class), eq(Document.class));
+        assertThat(aggregation.getValue().toString()).contains("$match").contains("p1");
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).updateOne(guard.capture(), any(Update.class));
+        assertThat(guard.getValue().getQueryObject()).containsEntry("commentsVersion", 7L).doesNotContainKey("commentCount");
+    }
+
+    @Test
+    void reconcile_ShouldRecountEachBatch() {
+        List<Document> posts = new ArrayList<>();
+        for (int i = 0; i <= CommentCountReconciler.BATCH_SIZE; i++) {
+            posts.add(new Document("_id", "p" + i).append("commentCount", 0L));
+        }
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Comment.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        when(mongoTemplate.getCollectionName(Post.class)).thenReturn("posts");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("posts"))).thenReturn(posts.stream());
+
+        assertThat(commentCountReconciler.reconcile()).isZero();
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq(Comment.class), eq(Document.class));
+    }
+
+    @Test
+    void reconcile_ShouldNotWrite_WhenCountsMatch() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Comment.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", "p1").append("count", 2)), new Document()));
+        when(mongoTemplate.getCollectionName(Post.class)).thenReturn("posts");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("posts")))
+                .thenReturn(Stream.of(new Document("_id", "p1").append("commentCount", 2L)));
+
+        assertThat(commentCountReconciler.reconcile()).isZero();
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Post.class));
+    }
+
+    @Test
+    void reconcile_ShouldHoldTheLeaseWhileRunning() {
+        when(mongoTemplate.getCollectionName(Post.class)).thenReturn("posts");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("posts"))).thenReturn(Stream.empty());
+
+        commentCountReconciler.reconcile();
+
+        ArgumentCaptor<Query> lease = ArgumentCaptor.forClass(Query.class);
+        InOrder order = inOrder(mongoTemplate);
+        order.verify(mongoTemplate).upsert(lease.capture(), any(Update.class), eq(CommentCountReconciler.LEASES));
+        order.verify(mongoTemplate).stream(any(Query.class), eq(Document.class), eq("posts"));
+        order.verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(CommentCountReconciler.LEASES));
+        assertThat(lease.getValue().getQueryObject()).containsEntry("_id", CommentCountReconciler.LEASE).containsKey("lockedUntil");
+    }
+
+    @Test
+    void reconcile_ShouldSkip_WhenAnotherNodeHoldsTheLease() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(CommentCountReconciler.LEASES)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        assertThat(commentCountReconciler.reconcile()).isZero();
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), anyString());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), anyString());
+    }
+
+    @Test
+    void reconcile_ShouldRecountTheGivenPosts() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Comment.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", "p1").append("count", 2)), new Document()));
+        when(mongoTemplate.getCollectionName(Post.class)).thenReturn("posts");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("posts")))
+                .thenReturn(List.of(new Document("_id", "p1").append("commentCount", 1L).append("commentsVersion", 3L)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        assertThat(commentCountReconciler.reconcile(List.of("p1"))).isEqualTo(1);
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), anyString());
+    }
+}
@@ -0,0 +1,103 @@
+package org.johndoe.kitchensink.services;
+
+import org.johndoe.kitchensink.dtos.CommentDto;
+import org.johndoe.kitchensink.events.CommentAddedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommentStreamServiceTest {
+
+    private final CommentStreamService commentStreamService = new CommentStreamService();
+
+    @AfterEach
+    void tearDown() {
+        commentStreamService.shutdown();
+    }
+
+    /**
+     * Emitter recording what it is sent, optionally blocking every send like a client that stopped reading.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch released;
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(boolean blocked) {
+            released = new CountDownLatch(blocked ? 1 : 0);
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            items.stream().map(item -> String.valueOf(item.getData())).forEach(sent::add);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+
+    private static CommentAddedEvent comment(String postId, String commentId) {
+        CommentDto comment = new CommentDto();
+        comment.setId(commentId);
+        comment.setContent("Content " + commentId);
+        return new CommentAddedEvent(postId, comment);
+    }
+
+    @Test
+    void onCommentAdded_ShouldPushOnlyToSubscribersOfThePost() throws Exception {
+        RecordingEmitter watcher = new RecordingEmitter(false);
+        RecordingEmitter other = new RecordingEmitter(false);
+        commentStreamService.subscribe("p1", watcher);
+        commentStreamService.subscribe("p2", other);
+
+        commentStreamService.onCommentAdded(comment("p1", "c1"));
+        commentStreamService.onCommentAdded(comment("p1", "c2"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (watcher.sent.stream().noneMatch(part -> part.contains("c2")) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(watcher.sent.get(0)).startsWith("id:c1\nevent:comment\ndata:");
+        assertThat(watcher.sent.stream().filter(part -> part.startsWith("id:")).toList())
+                .containsExactly("id:c1\nevent:comment\ndata:", "id:c2\nevent:comment\ndata:");
+        assertThat(other.sent).isEmpty();
+        assertThat(commentStreamService.countSubscribers()).isEqualTo(2);
+    }
+
+    @Test
+    void offer_ShouldEvictSubscriber_WhenItsBufferIsFull() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(true);
+        RecordingEmitter fast = new RecordingEmitter(false);
+        commentStreamService.subscribe("p1", slow);
+        commentStreamService.subscribe("p1", fast);
+
+        // One event is held by the blocked send, the buffer takes the next ones and overflows after that.
+        for (int i = 0; i <= CommentStreamService.BUFFER_SIZE + 1; i++) {
+            commentStreamService.onCommentAdded(comment("p1", "c" + i));
+            Thread.sleep(1);
+        }
+
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(commentStreamService.countSubscribers()).isEqualTo(1);
+        assertThat(fast.completed.getCount()).isEqualTo(1);
+        slow.released.countDown();
+    }
+}
@@ -0,0 +1,103 @@
+package org.johndoe.kitchensink.services;
+
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.dtos.IndexReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexCatalogServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations commentIndexes;
+
+    @Mock
+    private IndexOperations memberIndexes;
+
+    private IndexCatalogService indexCatalogService;
+
+    private static List<IndexInfo> indexes(String... names) {
+        return Arrays.stream(names)
+                .map(name -> IndexInfo.indexInfoOf(new Document("name", name).append("key", new Document(name, 1))))
+                .toList();
+    }
+
+    private static AggregationResults<Document> indexStats(String name, long ops) {
+        Document stats = new Document("name", name).append("accesses", new Document("ops", ops));
+        return new AggregationResults<>(List.of(stats), new Document());
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Comments reference members, so both collections are mapped.
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setInitialEntitySet(Set.of(Comment.class));
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoTemplate.indexOps("comments")).thenReturn(commentIndexes);
+        when(mongoTemplate.indexOps("members")).thenReturn(memberIndexes);
+        when(memberIndexes.getIndexInfo()).thenReturn(indexes("_id_", "member_id_idx", "username_idx", "email_idx", "phone_number_ci_idx"));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("members"), eq(Document.class))).thenReturn(indexStats("username_idx", 12));
+
+        indexCatalogService = new IndexCatalogService(mongoTemplate);
+    }
+
+    @Test
+    void ensureIndexes_ShouldBuildOnlyMissingIndexes() {
+        when(commentIndexes.getIndexInfo()).thenReturn(
+                indexes("_id_", "post_thread_idx"),
+                indexes("_id_", "post_thread_idx", "updated_at_idx", "member_idx", "author_idx"));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("comments"), eq(Document.class))).thenReturn(indexStats("post_thread_idx", 3));
+
+        List<IndexReport> reports = indexCatalogService.ensureIndexes();
+
+        verify(commentIndexes, times(3)).ensureIndex(any(IndexDefinition.class));
+        verify(memberIndexes, never()).ensureIndex(any(IndexDefinition.class));
+        assertThat(reports).extracting(IndexReport::collection).containsExactly("comments", "members");
+        assertThat(reports).allSatisfy(report -> assertThat(report.missing()).isEmpty());
+    }
+
+    @Test
+    void getReports_ShouldListMissingUndeclaredAndUnusedIndexes() {
+        when(commentIndexes.getIndexInfo()).thenReturn(indexes("_id_", "post_thread_idx", "legacy_idx"));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("comments"), eq(Document.class))).thenReturn(new AggregationResults<>(List.of(
+                new Document("name", "_id_").append("accesses", new Document("ops", 0L)),
+                new Document("name", "post_thread_idx").append("accesses", new Document("ops", 40L)),
+                new Document("name", "legacy_idx").append("accesses", new Document("ops", 0L))), new Document()));
+
+        IndexReport comments = indexCatalogService.getReports().get(0);
+
+        assertThat(comments.declared()).containsExactlyInAnyOrder("post_thread_idx", "updated_at_idx", "member_idx", "author_idx");
+        assertThat(comments.missing()).containsExactlyInAnyOrder("updated_at_idx", "member_idx", "author_idx");
+        assertThat(comments.undeclared()).containsExactly("legacy_idx");
+        assertThat(comments.unused()).containsExactly("legacy_idx");
+        verify(commentIndexes, never()).ensureIndex(any(IndexDefinition.class));
+    }
+}
@@ -0,0 +1,59 @@
+package org.johndoe.kitchensink.services;
+
+import org.bson.Document;
+import org.johndoe.kitchensink.documents.Member;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MemberIdentityFilterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private MemberIdentityFilter memberIdentityFilter;
+
+    @BeforeEach
+    void setUp() {
+        memberIdentityFilter = new MemberIdentityFilter(mongoTemplate);
+    }
+
+    @Test
+    void mightBeTaken_ShouldReportEveryValue_UntilTheFilterIsBuilt() {
+        assertThat(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.USERNAME, "anyone")).isTrue();
+        assertThat(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.USERNAME, null)).isFalse();
+    }
+
+    @Test
+    void mightBeTaken_ShouldAnswerFromTheScannedAndAddedMembers() {
+        when(mongoTemplate.estimatedCount(Member.class)).thenReturn(1L);
+        when(mongoTemplate.getCollectionName(Member.class)).thenReturn("members");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("members"))).thenReturn(Stream.of(
+                new Document("username", "John.Doe").append("email", "john.doe@email.com").append("phone_number", "9876543210")));
+
+        assertThat(memberIdentityFilter.rebuild()).isEqualTo(1);
+        Member jane = new Member(2L, "jane", "Jane", "Doe", "jane@email.com", "9876543211", "USER");
+        memberIdentityFilter.add(jane);
+
+        assertThat(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.USERNAME, "john.doe")).isTrue();
+        assertThat(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.EMAIL, "JOHN.DOE@email.com")).isTrue();
+        assertThat(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.PHONE_NUMBER, "9876543210")).isTrue();
+        assertThat(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.USERNAME, "JANE")).isTrue();
+        assertThat(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.USERNAME, "9876543210")).isFalse();
+        assertThat(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.USERNAME, "richard")).isFalse();
+        assertThat(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.USERNAME, "jöhn")).isTrue();
+        assertThat(memberIdentityFilter.getStatistics()).containsEntry("ready", true).containsEntry("additions", 6L);
+    }
+}
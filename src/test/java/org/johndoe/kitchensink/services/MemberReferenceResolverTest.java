@@ -0,0 +1,69 @@
+package org.johndoe.kitchensink.services;
+
+import com.mongodb.DBRef;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.documents.Post;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberReferenceResolverTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private MemberReferenceResolver memberReferenceResolver;
+
+    private static Member lazyReference(String id) {
+        Member proxy = mock(Member.class, withSettings().extraInterfaces(LazyLoadingProxy.class));
+        when(((LazyLoadingProxy) proxy).toDBRef()).thenReturn(new DBRef("members", id));
+        return proxy;
+    }
+
+    @Test
+    void resolveAuthors_ShouldLoadDistinctMembersWithOneQuery() {
+        Member john = new Member(1L, "john.doe", "John", "Doe", "john.doe@email.com", "9876543210", "user");
+        john.setId("m1");
+        Post post = new Post();
+        post.setMember(lazyReference("m1"));
+        Comment comment = new Comment();
+        comment.setMember(lazyReference("m1"));
+        Comment orphan = new Comment();
+        orphan.setMember(lazyReference("m2"));
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of(john));
+
+        memberReferenceResolver.resolveAuthors(List.of(post, comment, orphan));
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Member.class));
+        assertThat(post.getAuthor().getUsername()).isEqualTo("john.doe");
+        assertThat(comment.getAuthor()).isSameAs(post.getAuthor());
+        assertThat(orphan.getAuthor()).isNull();
+        assertThat(orphan.getMember()).isNull();
+    }
+
+    @Test
+    void resolveAuthors_ShouldSkipDocumentsWithSnapshots() {
+        Member john = new Member(1L, "john.doe", "John", "Doe", "john.doe@email.com", "9876543210", "user");
+        Post post = new Post("1", john, "Title", "Content", List.of());
+
+        memberReferenceResolver.resolveAuthors(List.of(post));
+
+        verifyNoInteractions(mongoTemplate);
+        assertThat(post.getAuthor().getMemberId()).isEqualTo(1L);
+    }
+}
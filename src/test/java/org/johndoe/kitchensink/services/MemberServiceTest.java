@@ -1,19 +1,33 @@
 package org.johndoe.kitchensink.services;
 
 import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.dtos.CursorPage;
+import org.johndoe.kitchensink.dtos.FieldSelection;
+import org.johndoe.kitchensink.dtos.MemberConflicts;
 import org.johndoe.kitchensink.dtos.MemberDto;
+import org.johndoe.kitchensink.events.MemberUpdatedEvent;
 import org.johndoe.kitchensink.exceptions.UserNotFoundException;
 import org.johndoe.kitchensink.exceptions.ValidationException;
 import org.johndoe.kitchensink.repositories.MemberRepository;
+import org.johndoe.kitchensink.utils.UtilityMethods;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -21,6 +35,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +44,21 @@ class MemberServiceTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CollectionCountService collectionCountService;
+
+    @Mock
+    private SequenceService sequenceService;
+
+    @Mock
+    private MemberIdentityFilter memberIdentityFilter;
+
+    @Spy
+    private MemberCache memberCache = new MemberCache(new ConcurrentMapCacheManager());
+
     @InjectMocks
     private MemberService memberService;
 
@@ -46,6 +76,8 @@ class MemberServiceTest {
         memberDto = MemberDto.Mapper.fromEntity(member);
         memberDto.setPassword("Querty@1".toCharArray());
         memberDto.setRepeatPassword("Querty@1".toCharArray());
+        // As before the filter is built: every value must be looked up.
+        lenient().when(memberIdentityFilter.mightBeTaken(anyString(), any())).thenReturn(true);
     }
 
     @Test
@@ -64,18 +96,66 @@ class MemberServiceTest {
 
     @Test
     void testCreateMember_Success() {
-        when(memberRepository.findTopByOrderByMemberIdDesc()).thenReturn(Optional.of(member));
+        when(memberRepository.findConflicts(member.getUsername(), member.getEmail(), member.getPhoneNumber())).thenReturn(MemberConflicts.NONE);
+        when(sequenceService.next(eq(MemberService.MEMBER_ID_SEQUENCE), any())).thenReturn(2L);
         when(memberRepository.save(any(Member.class))).thenReturn(member);
 
         MemberDto result = memberService.createMember(memberDto);
         assertNotNull(result);
         assertEquals("john.doe", result.getUsername());
+        verify(memberRepository).save(argThat(saved -> saved.getMemberId() == 2L));
+        verify(memberRepository, never()).findTopByOrderByMemberIdDesc();
+    }
+
+    @Test
+    void testCreateMember_RetriesWithANewId_WhenTheIdIsTaken() {
+        when(memberRepository.findConflicts(member.getUsername(), member.getEmail(), member.getPhoneNumber())).thenReturn(MemberConflicts.NONE);
+        when(sequenceService.next(eq(MemberService.MEMBER_ID_SEQUENCE), any())).thenReturn(2L, 3L);
+        when(memberRepository.save(any(Member.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error index: " + Member.MEMBER_ID_INDEX))
+                .thenReturn(member);
+
+        assertNotNull(memberService.createMember(memberDto));
+        verify(sequenceService).reset(MemberService.MEMBER_ID_SEQUENCE);
+        assertEquals(3L, memberDto.getMemberId());
+    }
+
+    @Test
+    void testCreateMember_ReportsConflict_WhenAnotherKeyIsTakenMeanwhile() {
+        when(memberRepository.findConflicts(member.getUsername(), member.getEmail(), member.getPhoneNumber())).thenReturn(MemberConflicts.NONE);
+        when(sequenceService.next(eq(MemberService.MEMBER_ID_SEQUENCE), any())).thenReturn(2L);
+        when(memberRepository.save(any(Member.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key error index: " + Member.USERNAME_INDEX));
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> memberService.createMember(memberDto));
+        assertEquals("[username should be unique]", exception.getMessage());
+        verify(sequenceService, never()).reset(any());
     }
 
     @Test
     void testCreateMember_EmailAlreadyExists() {
-        when(memberRepository.findByEmail(memberDto.getEmail())).thenReturn(Optional.of(member));
-        assertThrows(ValidationException.class, () -> memberService.createMember(memberDto));
+        when(memberRepository.findConflicts(member.getUsername(), member.getEmail(), member.getPhoneNumber()))
+                .thenReturn(new MemberConflicts(false, true, false));
+        ValidationException exception = assertThrows(ValidationException.class, () -> memberService.createMember(memberDto));
+        assertEquals("[email should be unique]", exception.getMessage());
+        verify(memberRepository, never()).save(any(Member.class));
+    }
+
+    @Test
+    void testFindConflicts_QueriesOncePerRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            when(memberRepository.findConflicts(member.getUsername(), member.getEmail(), member.getPhoneNumber())).thenReturn(MemberConflicts.NONE);
+
+            assertFalse(memberService.findConflicts(memberDto).any());
+            assertFalse(memberService.findConflicts(memberDto).any());
+            memberDto.setEmail("jane.doe@email.com");
+            memberService.findConflicts(memberDto);
+
+            verify(memberRepository, times(1)).findConflicts(member.getUsername(), member.getEmail(), member.getPhoneNumber());
+            verify(memberRepository, times(1)).findConflicts(member.getUsername(), "jane.doe@email.com", member.getPhoneNumber());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
     }
 
     @Test
@@ -88,15 +168,74 @@ class MemberServiceTest {
     @Test
     void testFindAllMembersWithPagination() {
         Page<Member> page = new PageImpl<>(List.of(member));
-        when(memberRepository.findAll(any(PageRequest.class))).thenReturn(page);
+        when(memberRepository.findSlice(any(PageRequest.class), isNull())).thenReturn(page);
 
-        Page<MemberDto> result = memberService.findAllMembers(PageRequest.of(0, 10));
+        Slice<MemberDto> result = memberService.findAllMembers(PageRequest.of(0, 10), FieldSelection.ALL);
         assertFalse(result.isEmpty());
     }
 
+    @Test
+    void testCountMembers() {
+        when(collectionCountService.estimatedCount(Member.class)).thenReturn(40L);
+        when(memberRepository.count()).thenReturn(42L);
+
+        assertEquals(40L, memberService.countMembers(false));
+        assertEquals(42L, memberService.countMembers(true));
+    }
+
+    @Test
+    void testFindAllMembersWithFieldSelection() {
+        when(memberRepository.findSlice(any(PageRequest.class), eq(List.of("username")))).thenReturn(new PageImpl<>(List.of(member)));
+
+        Slice<MemberDto> result = memberService.findAllMembers(PageRequest.of(0, 10), FieldSelection.of("username"));
+
+        MemberDto dto = result.getContent().get(0);
+        assertEquals(member.getUsername(), dto.getUsername());
+        assertNull(dto.getEmail());
+        assertNull(dto.getMemberId());
+    }
+
+    @Test
+    void testFindMembersByCursor_WithFieldSelection() {
+        when(memberRepository.findMembersAfter(0L, 11, List.of("username", "memberId"))).thenReturn(List.of(member));
+
+        CursorPage<MemberDto> result = memberService.findMembersByCursor(null, 10, FieldSelection.of("username"));
+
+        assertEquals(member.getUsername(), result.content().get(0).getUsername());
+        assertNull(result.content().get(0).getMemberId());
+    }
+
+    @Test
+    void testFindMembersByCursor_FirstPage() {
+        Member next = new Member();
+        next.setMemberId(2L);
+        when(memberRepository.findByMemberIdGreaterThanOrderByMemberIdAsc(0L, Limit.of(2))).thenReturn(List.of(member, next));
+
+        CursorPage<MemberDto> result = memberService.findMembersByCursor(null, 1, FieldSelection.ALL);
+
+        assertEquals(1, result.content().size());
+        assertEquals("1", UtilityMethods.decodeCursor(result.nextCursor(), 1)[0]);
+    }
+
+    @Test
+    void testFindMembersByCursor_LastPage() {
+        when(memberRepository.findByMemberIdGreaterThanOrderByMemberIdAsc(1L, Limit.of(11))).thenReturn(List.of());
+
+        CursorPage<MemberDto> result = memberService.findMembersByCursor(UtilityMethods.encodeCursor("1"), 10, FieldSelection.ALL);
+
+        assertTrue(result.isLast());
+    }
+
+    @Test
+    void testFindMembersByCursor_InvalidCursor() {
+        String cursor = UtilityMethods.encodeCursor("abc");
+        assertThrows(ValidationException.class, () -> memberService.findMembersByCursor(cursor, 10, FieldSelection.ALL));
+    }
+
     @Test
     void testFindMemberByEmail_Success() {
         when(memberRepository.findByEmail(member.getEmail())).thenReturn(Optional.of(member));
+        when(memberRepository.findByMemberId(1L)).thenReturn(Optional.of(member));
         MemberDto result = memberService.findMemberByEmail(member.getEmail());
         assertNotNull(result);
         assertEquals("john.doe", result.getUsername());
@@ -125,11 +264,45 @@ class MemberServiceTest {
     @Test
     void testFindMemberByName_Success() {
         when(memberRepository.findByUsername(member.getUsername())).thenReturn(Optional.of(member));
+        when(memberRepository.findByMemberId(1L)).thenReturn(Optional.of(member));
         MemberDto result = memberService.findMemberByName(member.getUsername());
         assertNotNull(result);
         assertEquals("john.doe", result.getUsername());
     }
 
+    @Test
+    void testFindMemberByName_ServesAliasesFromTheCachedMember() {
+        when(memberRepository.findByUsername("JOHN.DOE")).thenReturn(Optional.of(member));
+        when(memberRepository.findByMemberId(1L)).thenReturn(Optional.of(member));
+
+        MemberDto byName = memberService.findMemberByName("JOHN.DOE");
+        assertSame(byName, memberService.findMemberByName("john.doe"));
+        assertSame(byName, memberService.findMemberById(1L));
+
+        verify(memberRepository, times(1)).findByUsername(anyString());
+        verify(memberRepository, times(1)).findByMemberId(1L);
+    }
+
+    @Test
+    void testUpdateMember_EvictsOnlyTheUpdatedMemberAndItsAliases() {
+        Member other = new Member(2L, "jane.doe", "Jane", "Doe", "jane.doe@email.com", "9876543211", "USER");
+        when(memberRepository.findByMemberId(1L)).thenReturn(Optional.of(member));
+        when(memberRepository.findByMemberId(2L)).thenReturn(Optional.of(other));
+        when(memberRepository.findByEmail("john.doe@email.com")).thenReturn(Optional.of(member), Optional.empty());
+        when(memberRepository.save(any(Member.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        memberService.findMemberByEmail("john.doe@email.com");
+        memberService.findMemberById(2L);
+
+        MemberDto update = new MemberDto();
+        update.setEmail("john@email.com");
+        memberService.updateMember(1L, update);
+
+        assertThrows(UserNotFoundException.class, () -> memberService.findMemberByEmail("john.doe@email.com"));
+        memberService.findMemberById(2L);
+        verify(memberRepository, times(1)).findByMemberId(2L);
+        verify(memberRepository, times(2)).findByMemberId(1L);
+    }
+
     @Test
     void testFindMemberByName_NotFound() {
         when(memberRepository.findByUsername(member.getUsername())).thenReturn(Optional.empty());
@@ -161,30 +334,6 @@ class MemberServiceTest {
         verify(memberRepository, times(1)).deleteByMemberId(1L);
     }
 
-    @Test
-    void testDoesValueExistAsEmailOrPhoneNumber_True() {
-        when(memberRepository.findByEmail(member.getEmail())).thenReturn(Optional.of(member));
-        assertTrue(memberService.doesValueExistAsEmailOrPhoneNumber(member.getEmail()));
-    }
-
-    @Test
-    void testDoesValueExistAsEmailOrPhoneNumber_False() {
-        when(memberRepository.findByEmail(member.getEmail())).thenReturn(Optional.empty());
-        assertFalse(memberService.doesValueExistAsEmailOrPhoneNumber(member.getEmail()));
-    }
-
-    @Test
-    void testDoesValueExistsAsUsername_True() {
-        when(memberRepository.findByUsername(member.getUsername())).thenReturn(Optional.of(member));
-        assertTrue(memberService.doesValueExistsAsUsername(member.getUsername()));
-    }
-
-    @Test
-    void testDoesValueExistsAsUsername_False() {
-        when(memberRepository.findByUsername(member.getUsername())).thenReturn(Optional.empty());
-        assertFalse(memberService.doesValueExistsAsUsername(member.getUsername()));
-    }
-
     @Test
     void testFindMemberIdByEmailOrUsername_Success() {
         when(memberRepository.findByEmailOrUsername(member.getEmail())).thenReturn(Optional.of(member));
@@ -227,6 +376,27 @@ class MemberServiceTest {
         assertFalse(result.block());
     }
 
+    @Test
+    void testCheckUsernameAvailability_SkipsQuery_WhenFilterHasNotSeenTheUsername() {
+        when(memberIdentityFilter.mightBeTaken(MemberIdentityFilter.USERNAME, "jane.doe")).thenReturn(false);
+
+        assertTrue(memberService.checkUsernameAvailability("jane.doe").block());
+        verify(memberRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void testCreateMember_QueriesConflictsAndAddsTheMemberToTheFilter() {
+        lenient().when(memberIdentityFilter.mightBeTaken(anyString(), any())).thenReturn(false);
+        when(memberRepository.findConflicts(member.getUsername(), member.getEmail(), member.getPhoneNumber())).thenReturn(MemberConflicts.NONE);
+        when(sequenceService.next(eq(MemberService.MEMBER_ID_SEQUENCE), any())).thenReturn(2L);
+        when(memberRepository.save(any(Member.class))).thenReturn(member);
+
+        memberService.createMember(memberDto);
+
+        verify(memberRepository).findConflicts(member.getUsername(), member.getEmail(), member.getPhoneNumber());
+        verify(memberIdentityFilter).add(member);
+    }
+
     @Test
     void testUpdateMemberByUsername_Success() {
         Member existingMember = new Member();
@@ -251,6 +421,7 @@ class MemberServiceTest {
         assertEquals("new.email@email.com", result.getEmail());
         assertEquals("1234567890", result.getPhoneNumber());
         verify(memberRepository, times(1)).save(existingMember);
+        verify(eventPublisher).publishEvent(new MemberUpdatedEvent(existingMember));
     }
 
     @Test
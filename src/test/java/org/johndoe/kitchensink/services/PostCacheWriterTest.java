@@ -0,0 +1,115 @@
+package org.johndoe.kitchensink.services;
+
+import org.johndoe.kitchensink.dtos.CommentDto;
+import org.johndoe.kitchensink.dtos.PostDto;
+import org.johndoe.kitchensink.config.CoalescingCacheManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostCacheWriterTest {
+
+    private Cache cache;
+    private PostCacheWriter postCacheWriter;
+
+    @BeforeEach
+    void setUp() {
+        CacheManager cacheManager = new CoalescingCacheManager(new ConcurrentMapCacheManager(PostCacheWriter.CACHE_NAME));
+        cache = cacheManager.getCache(PostCacheWriter.CACHE_NAME);
+        postCacheWriter = new PostCacheWriter(cacheManager);
+    }
+
+    private static CommentDto comment(String id, LocalDateTime createdAt) {
+        return CommentDto.Mapper.fromEntity(id, "comment " + id, createdAt);
+    }
+
+    private static PostDto cachedPost(int comments, long version) {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        List<CommentDto> page = new ArrayList<>();
+        for (int i = comments; i > 0; i--) {
+            page.add(comment("c" + i, now.plusMinutes(i)));
+        }
+        PostDto post = new PostDto();
+        post.setId("p1");
+        post.setComments(page);
+        post.setCommentCount((long) comments);
+        post.setCommentsVersion(version);
+        return post;
+    }
+
+    @Test
+    void appendComment_ShouldWriteThroughToCachedPost() {
+        PostDto original = cachedPost(2, 4);
+        cache.put("p1", original);
+
+        postCacheWriter.appendComment("p1", comment("c3", LocalDateTime.of(2025, 1, 1, 11, 0)), 3, 5);
+
+        PostDto cached = cache.get("p1", PostDto.class);
+        assertNotSame(original, cached);
+        assertEquals(List.of("c3", "c2", "c1"), cached.getComments().stream().map(CommentDto::getId).toList());
+        assertEquals(3L, cached.getCommentCount());
+        assertEquals(5L, cached.getCommentsVersion());
+        assertEquals(2, original.getComments().size());
+    }
+
+    @Test
+    void appendComment_ShouldKeepFirstPageBounded() {
+        cache.put("p1", cachedPost(PostService.COMMENT_PAGE_SIZE, 1));
+
+        postCacheWriter.appendComment("p1", comment("new", LocalDateTime.of(2026, 1, 1, 0, 0)), PostService.COMMENT_PAGE_SIZE + 1, 2);
+
+        PostDto cached = cache.get("p1", PostDto.class);
+        assertEquals(PostService.COMMENT_PAGE_SIZE, cached.getComments().size());
+        assertEquals("new", cached.getComments().get(0).getId());
+        assertNotNull(cached.getCommentsNextCursor());
+    }
+
+    @Test
+    void appendComment_ShouldEvict_WhenVersionsAreNotContiguous() {
+        cache.put("p1", cachedPost(2, 4));
+
+        postCacheWriter.appendComment("p1", comment("c4", LocalDateTime.now()), 4, 6);
+
+        assertNull(cache.get("p1"));
+    }
+
+    @Test
+    void appendComment_ShouldNotPopulateMissingEntries() {
+        postCacheWriter.appendComment("p1", comment("c1", LocalDateTime.now()), 1, 1);
+
+        assertNull(cache.get("p1"));
+    }
+
+    @Test
+    void appendComment_ShouldWriteThroughToCaffeineCache() {
+        CacheManager cacheManager = new CoalescingCacheManager(new CaffeineCacheManager(PostCacheWriter.CACHE_NAME));
+        Cache caffeineCache = cacheManager.getCache(PostCacheWriter.CACHE_NAME);
+        caffeineCache.put("p1", cachedPost(2, 4));
+
+        new PostCacheWriter(cacheManager).appendComment("p1", comment("c3", LocalDateTime.of(2025, 1, 1, 11, 0)), 3, 5);
+
+        PostDto cached = caffeineCache.get("p1", PostDto.class);
+        assertEquals(List.of("c3", "c2", "c1"), cached.getComments().stream().map(CommentDto::getId).toList());
+        assertEquals(5L, cached.getCommentsVersion());
+    }
+
+    @Test
+    void appendComment_ShouldEvict_WhenCacheIsNotCoalescing() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(PostCacheWriter.CACHE_NAME);
+        Cache plainCache = cacheManager.getCache(PostCacheWriter.CACHE_NAME);
+        plainCache.put("p1", cachedPost(2, 4));
+
+        new PostCacheWriter(cacheManager).appendComment("p1", comment("c3", LocalDateTime.now()), 3, 5);
+
+        assertNull(plainCache.get("p1"));
+    }
+}
@@ -0,0 +1,106 @@
+package org.johndoe.kitchensink.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.johndoe.kitchensink.documents.Comment;
+import org.johndoe.kitchensink.documents.Member;
+import org.johndoe.kitchensink.documents.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostExportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MemberReferenceResolver memberReferenceResolver;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private PostExportService postExportService;
+
+    @BeforeEach
+    void setUp() {
+        postExportService = new PostExportService(mongoTemplate, memberReferenceResolver, objectMapper);
+    }
+
+    @Test
+    void exportPosts_ShouldWriteOneLinePerPost_StreamingCommentsPerChunk() throws Exception {
+        Member member = new Member(1L, "john.doe", "John", "Doe", "john.doe@email.com", "9876543210", "USER");
+        List<Post> posts = IntStream.range(0, PostExportService.CHUNK_SIZE + 1).mapToObj(i -> {
+            Post post = new Post(null, member, "Title " + i, "Content " + i, new ArrayList<>());
+            post.setPostId("p" + i);
+            return post;
+        }).toList();
+        Comment comment = new Comment(null, member, "p0", "First!");
+        comment.setCommentId("c1");
+        when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenReturn(posts.stream());
+        when(mongoTemplate.stream(any(Query.class), eq(Comment.class))).thenReturn(Stream.of(comment), Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = postExportService.exportPosts(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(PostExportService.CHUNK_SIZE + 1);
+        assertThat(lines).hasSize(PostExportService.CHUNK_SIZE + 1);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asText()).isEqualTo("p0");
+        assertThat(first.get("comments").get(0).get("content").asText()).isEqualTo("First!");
+        assertThat(objectMapper.readTree(lines[1]).get("comments")).isEmpty();
+        assertThat(objectMapper.readTree(lines[PostExportService.CHUNK_SIZE]).get("id").asText()).isEqualTo("p500");
+        verify(mongoTemplate, times(2)).stream(any(Query.class), eq(Comment.class));
+        verify(memberReferenceResolver, times(3)).resolveAuthors(anyList());
+    }
+
+    @Test
+    void exportPosts_ShouldResolveAuthorsOfLongThreadsInBatches() throws Exception {
+        Member member = new Member(1L, "john.doe", "John", "Doe", "john.doe@email.com", "9876543210", "USER");
+        Post post = new Post(null, member, "Title", "Content", new ArrayList<>());
+        post.setPostId("p0");
+        List<Comment> comments = IntStream.range(0, PostExportService.COMMENT_BATCH_SIZE * 2 + 1).mapToObj(i -> {
+            Comment comment = new Comment(null, member, "p0", "Comment " + i);
+            comment.setCommentId("c" + i);
+            return comment;
+        }).toList();
+        when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenReturn(Stream.of(post));
+        when(mongoTemplate.stream(any(Query.class), eq(Comment.class))).thenReturn(comments.stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        postExportService.exportPosts(out);
+
+        JsonNode line = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).trim());
+        assertThat(line.get("comments")).hasSize(comments.size());
+        assertThat(line.get("comments").get(comments.size() - 1).get("content").asText()).isEqualTo("Comment " + (comments.size() - 1));
+        verify(memberReferenceResolver, times(4)).resolveAuthors(anyList());
+    }
+
+    @Test
+    void exportPosts_ShouldWriteNothing_WhenThereAreNoPosts() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(postExportService.exportPosts(out)).isZero();
+        assertThat(out.size()).isZero();
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Comment.class));
+    }
+}
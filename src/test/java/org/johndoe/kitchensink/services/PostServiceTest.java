@@ -3,28 +3,42 @@ package org.johndoe.kitchensink.services;
 import org.johndoe.kitchensink.documents.Comment;
 import org.johndoe.kitchensink.documents.Member;
 import org.johndoe.kitchensink.documents.Post;
+import org.johndoe.kitchensink.documents.PostFeedEntry;
 import org.johndoe.kitchensink.dtos.CommentDto;
+import org.johndoe.kitchensink.dtos.CursorPage;
+import org.johndoe.kitchensink.dtos.FieldSelection;
 import org.johndoe.kitchensink.dtos.PostDto;
+import org.johndoe.kitchensink.events.CommentAddedEvent;
 import org.johndoe.kitchensink.exceptions.ApplicationException;
+import org.johndoe.kitchensink.exceptions.ValidationException;
 import org.johndoe.kitchensink.repositories.CommentRepository;
 import org.johndoe.kitchensink.repositories.MemberRepository;
 import org.johndoe.kitchensink.repositories.PostRepository;
 import org.johndoe.kitchensink.utils.ApplicationConstants;
+import org.johndoe.kitchensink.utils.InvertedIndex;
+import org.johndoe.kitchensink.utils.UtilityMethods;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +53,21 @@ class PostServiceTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private MemberReferenceResolver memberReferenceResolver;
+
+    @Mock
+    private CollectionCountService collectionCountService;
+
+    @Mock
+    private PostCacheWriter postCacheWriter;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PostService postService;
 
@@ -56,28 +85,215 @@ class PostServiceTest {
     @Test
     void getAllPosts_ShouldReturnPostDtos() {
         Page<Post> postPage = new PageImpl<>(List.of(testPost));
-        when(postRepository.findAll(any(Pageable.class))).thenReturn(postPage);
-        when(commentRepository.findByPostId(any(), any())).thenReturn(List.of(testComment));
+        when(postRepository.findSlice(any(Pageable.class), isNull())).thenReturn(postPage);
+        when(commentRepository.findByPostIdIn(anyCollection(), any())).thenReturn(List.of(testComment));
 
-        Page<PostDto> result = postService.getAllPosts(Pageable.unpaged());
+        Slice<PostDto> result = postService.getAllPosts(Pageable.unpaged(), FieldSelection.ALL);
 
         assertEquals(1, result.getContent().size());
         assertEquals("Test Title", result.getContent().get(0).getTitle());
-        verify(postRepository).findAll(any(Pageable.class));
+        assertEquals(1, result.getContent().get(0).getComments().size());
+        verify(postRepository).findSlice(any(Pageable.class), isNull());
+    }
+
+    @Test
+    void getAllPosts_ShouldLoadCommentsForWholePageInOneQuery() {
+        Post otherPost = new Post("2", testMember, "Other Title", "Other Content", List.of());
+        Comment otherComment = new Comment("2", testMember, "2", "Other Comment");
+        when(postRepository.findSlice(any(Pageable.class), isNull())).thenReturn(new PageImpl<>(List.of(testPost, otherPost)));
+        when(commentRepository.findByPostIdIn(anyCollection(), any())).thenReturn(List.of(testComment, otherComment));
+
+        Slice<PostDto> result = postService.getAllPosts(Pageable.unpaged(), FieldSelection.ALL);
+
+        assertEquals("Test Comment", result.getContent().get(0).getComments().get(0).getContent());
+        assertEquals("Other Comment", result.getContent().get(1).getComments().get(0).getContent());
+        verify(commentRepository, times(1)).findByPostIdIn(eq(List.of("1", "2")), any());
+        verify(commentRepository, never()).findByPostId(anyString(), any());
+    }
+
+    @Test
+    void getAllPosts_ShouldSkipCommentQuery_WhenPageIsEmpty() {
+        when(postRepository.findSlice(any(Pageable.class), isNull())).thenReturn(Page.empty());
+
+        Slice<PostDto> result = postService.getAllPosts(Pageable.unpaged(), FieldSelection.ALL);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void countPosts_ShouldEstimateUnlessExactIsRequested() {
+        when(collectionCountService.estimatedCount(Post.class)).thenReturn(100L);
+        when(postRepository.count()).thenReturn(98L);
+
+        assertEquals(100L, postService.countPosts(false));
+        assertEquals(98L, postService.countPosts(true));
+    }
+
+    @Test
+    void getPostsVersion_ShouldChangeWithUpdatesAndDeletes() {
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        when(postRepository.findLastUpdatedAt()).thenReturn(Optional.of(updatedAt));
+        when(commentRepository.findLastUpdatedAt()).thenReturn(Optional.empty());
+        when(postRepository.estimatedCount()).thenReturn(5L, 4L);
+
+        String version = postService.getPostsVersion();
+
+        assertNotEquals(version, postService.getPostsVersion());
+        verify(postRepository, never()).findSlice(any(Pageable.class), any());
+    }
+
+    @Test
+    void getAllPosts_ShouldProjectSelectedFieldsAndSkipComments() {
+        when(postRepository.findSlice(any(Pageable.class), eq(List.of("title")))).thenReturn(new PageImpl<>(List.of(testPost)));
+
+        Slice<PostDto> result = postService.getAllPosts(Pageable.unpaged(), FieldSelection.of("id", "title"));
+
+        PostDto dto = result.getContent().get(0);
+        assertEquals("1", dto.getId());
+        assertEquals("Test Title", dto.getTitle());
+        assertNull(dto.getContent());
+        assertNull(dto.getMember());
+        assertNull(dto.getComments());
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void getPostsByCursor_ShouldAlwaysFetchCursorKey() {
+        when(postRepository.findPostsBefore(null, null, 11, List.of("title", "createdAt"))).thenReturn(List.of());
+
+        CursorPage<PostDto> result = postService.getPostsByCursor(null, 10, FieldSelection.of("title"));
+
+        assertTrue(result.isLast());
+    }
+
+    @Test
+    void getPostsByCursor_ShouldReturnNextCursor_WhenMorePostsExist() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        testPost.setCreatedAt(createdAt);
+        Post olderPost = new Post("2", testMember, "Older Title", "Older Content", List.of());
+        when(postRepository.findPostsBefore(null, null, 2, null)).thenReturn(List.of(testPost, olderPost));
+        when(commentRepository.findByPostIdIn(anyCollection(), any())).thenReturn(List.of(testComment));
+
+        CursorPage<PostDto> result = postService.getPostsByCursor(null, 1, FieldSelection.ALL);
+
+        assertEquals(1, result.content().size());
+        assertArrayEquals(new String[]{createdAt.toString(), "1"}, UtilityMethods.decodeCursor(result.nextCursor(), 2));
+    }
+
+    @Test
+    void getPostsByCursor_ShouldSeekFromCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        String cursor = UtilityMethods.encodeCursor(createdAt.toString(), "1");
+        when(postRepository.findPostsBefore(createdAt, "1", 11, null)).thenReturn(List.of());
+
+        CursorPage<PostDto> result = postService.getPostsByCursor(cursor, 10, FieldSelection.ALL);
+
+        assertTrue(result.isLast());
+        assertTrue(result.content().isEmpty());
+    }
+
+    @Test
+    void getPostsByCursor_ShouldRejectMalformedCursor() {
+        String cursor = UtilityMethods.encodeCursor("yesterday", "1");
+
+        assertThrows(ValidationException.class, () -> postService.getPostsByCursor(cursor, 10, FieldSelection.ALL));
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void searchPosts_ShouldReturnScoresAndSeekFromCursor() {
+        testPost.setScore(2.5);
+        Post lessRelevant = new Post("2", testMember, "Other Title", "Test Content", List.of());
+        lessRelevant.setScore(1.25);
+        when(postRepository.searchPosts(eq("test"), isNull(), isNull(), eq(2), any(Duration.class))).thenReturn(List.of(testPost, lessRelevant));
+
+        CursorPage<PostDto> result = postService.searchPosts(" test ", null, 1);
+
+        assertEquals(1, result.content().size());
+        assertEquals(2.5, result.content().get(0).getScore());
+        assertNull(result.content().get(0).getComments());
+        assertArrayEquals(new String[]{"2.5", "1"}, UtilityMethods.decodeCursor(result.nextCursor(), 2));
+        verifyNoInteractions(commentRepository);
+
+        when(postRepository.searchPosts(eq("test"), eq(2.5), eq("1"), eq(2), any(Duration.class))).thenReturn(List.of(lessRelevant));
+
+        CursorPage<PostDto> next = postService.searchPosts("test", result.nextCursor(), 1);
+
+        assertEquals("2", next.content().get(0).getId());
+        assertTrue(next.isLast());
+    }
+
+    @Test
+    void searchPosts_ShouldRejectBlankQuery() {
+        assertThrows(ValidationException.class, () -> postService.searchPosts(" ", null, 10));
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void getFeed_ShouldReturnCommentPreviewAndCount() {
+        Comment newerComment = new Comment("2", testMember, "1", "Newer Comment");
+        PostFeedEntry entry = new PostFeedEntry();
+        entry.setPost(testPost);
+        entry.setLatestComments(List.of(newerComment, testComment));
+        entry.setCommentCount(7);
+        when(postRepository.findFeed(any(Pageable.class), eq(2), isNull())).thenReturn(new PageImpl<>(List.of(entry)));
+
+        Slice<PostDto> result = postService.getFeed(Pageable.unpaged(), 2, FieldSelection.ALL);
+
+        PostDto dto = result.getContent().get(0);
+        assertEquals(7L, dto.getCommentCount());
+        assertEquals(List.of("Test Comment", "Newer Comment"), dto.getComments().stream().map(CommentDto::getContent).toList());
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void getFeed_ShouldCapPreviewSize() {
+        when(postRepository.findFeed(any(Pageable.class), anyInt(), isNull())).thenReturn(Page.empty());
+
+        postService.getFeed(Pageable.unpaged(), 500, FieldSelection.ALL);
+
+        verify(postRepository).findFeed(any(Pageable.class), eq(PostService.MAX_COMMENT_PREVIEW), isNull());
     }
 
     @Test
     void getPostById_ShouldReturnPostDto() {
         when(postRepository.findByPostId("1")).thenReturn(Optional.of(testPost));
-        when(commentRepository.findByPostId(anyString(), any())).thenReturn(List.of(testComment));
+        when(commentRepository.findCommentsBefore("1", null, null, PostService.COMMENT_PAGE_SIZE + 1)).thenReturn(List.of(testComment));
 
         Optional<PostDto> result = postService.getPostById("1");
 
         assertTrue(result.isPresent());
         assertEquals("Test Title", result.get().getTitle());
+        assertEquals(1, result.get().getComments().size());
+        assertNull(result.get().getCommentsNextCursor());
         verify(postRepository).findByPostId("1");
     }
 
+    @Test
+    void getComments_ShouldReturnNextCursor_WhenMoreCommentsExist() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        testComment.setCreatedAt(createdAt);
+        Comment olderComment = new Comment("2", testMember, "1", "Older Comment");
+        when(commentRepository.findCommentsBefore("1", null, null, 2)).thenReturn(List.of(testComment, olderComment));
+
+        CursorPage<CommentDto> result = postService.getComments("1", null, 1);
+
+        assertEquals(1, result.content().size());
+        assertArrayEquals(new String[]{createdAt.toString(), "1"}, UtilityMethods.decodeCursor(result.nextCursor(), 2));
+    }
+
+    @Test
+    void getComments_ShouldSeekFromCursorAndCapPageSize() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        String cursor = UtilityMethods.encodeCursor(createdAt.toString(), "5");
+        when(commentRepository.findCommentsBefore("1", createdAt, "5", PostService.MAX_COMMENT_PAGE_SIZE + 1)).thenReturn(List.of());
+
+        CursorPage<CommentDto> result = postService.getComments("1", cursor, 1000);
+
+        assertTrue(result.isLast());
+    }
+
     @Test
     void createPost_ShouldReturnCreatedPost() {
         when(memberRepository.findByUsername("john.doe")).thenReturn(Optional.of(testMember));
@@ -87,6 +303,7 @@ class PostServiceTest {
 
         assertEquals("Test Title", result.getTitle());
         verify(postRepository).save(any(Post.class));
+        verify(postSearchIndex).add(testPost.getPostId(), testPost.getTitle(), testPost.getContent());
     }
 
     @Test
@@ -94,11 +311,19 @@ class PostServiceTest {
         when(memberRepository.findByUsername("john.doe")).thenReturn(Optional.of(testMember));
         when(postRepository.findByPostId("1")).thenReturn(Optional.of(testPost));
         when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
+        Post counters = new Post();
+        counters.setCommentCount(3);
+        counters.setCommentsVersion(5);
+        when(postRepository.recountComments("1")).thenReturn(Optional.of(counters));
 
         CommentDto result = postService.addComment("1", "john.doe", "Test Comment");
 
         assertEquals("Test Comment", result.getContent());
         verify(commentRepository).save(any(Comment.class));
+        verify(postRepository).recountComments("1");
+        verify(postCacheWriter).appendComment(eq("1"), any(CommentDto.class), eq(3L), eq(5L));
+        verify(postCacheWriter, never()).evict(anyString());
+        verify(eventPublisher).publishEvent(new CommentAddedEvent("1", result));
     }
 
     @Test
@@ -113,10 +338,12 @@ class PostServiceTest {
     void deletePost_ShouldDelete_WhenAdmin() {
         testMember.setUserRole(ApplicationConstants.ROLES.ADMIN.name());
         when(memberRepository.findByUsername("john.doe")).thenReturn(Optional.of(testMember));
+        when(postRepository.deleteByPostId("1")).thenReturn(1L);
 
         postService.deletePost("john.doe", "1");
 
         verify(postRepository).deleteByPostId("1");
+        verify(postSearchIndex).remove("1");
     }
 
     @Test
@@ -126,16 +353,41 @@ class PostServiceTest {
         postService.deletePost("john.doe", "1");
 
         verify(postRepository).deleteByPostIdAndMember("1", testMember);
+        verify(postSearchIndex, never()).remove(anyString());
+    }
+
+    @Test
+    void suggestPosts_ShouldMapHits_WhenIndexIsAvailable() {
+        when(postSearchIndex.search("spri", 5)).thenReturn(Optional.of(List.of(new InvertedIndex.Hit("1", "Spring tips", 2.5f))));
+
+        List<PostDto> result = postService.suggestPosts("spri", 5).orElseThrow();
+
+        assertEquals(1, result.size());
+        assertEquals("1", result.get(0).getId());
+        assertEquals("Spring tips", result.get(0).getTitle());
+        assertEquals(2.5, result.get(0).getScore());
+        assertNull(result.get(0).getContent());
+    }
+
+    @Test
+    void suggestPosts_ShouldBeEmpty_WhenIndexIsUnavailable() {
+        when(postSearchIndex.search("spri", PostService.MAX_SEARCH_PAGE_SIZE)).thenReturn(Optional.empty());
+
+        assertTrue(postService.suggestPosts("spri", 500).isEmpty());
+        assertThrows(ValidationException.class, () -> postService.suggestPosts(" ", 5));
     }
 
     @Test
     void deleteComment_ShouldDelete_WhenAdmin() {
         testMember.setUserRole(ApplicationConstants.ROLES.ADMIN.name());
         when(memberRepository.findByUsername("john.doe")).thenReturn(Optional.of(testMember));
+        when(commentRepository.deleteByCommentId("1")).thenReturn(List.of(testComment));
 
         postService.deleteComment("john.doe", "1");
 
         verify(commentRepository).deleteByCommentId("1");
+        verify(postRepository).recountComments(testComment.getPostId());
+        verify(postCacheWriter).evict(testComment.getPostId());
     }
 
     @Test
@@ -145,5 +397,6 @@ class PostServiceTest {
         postService.deleteComment("john.doe", "1");
 
         verify(commentRepository).deleteByCommentIdAndMember("1", testMember);
+        verify(postRepository, never()).recountComments(anyString());
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package org.johndoe.kitchensink.services;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SequenceServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private SequenceService sequenceService;
+
+    /**
+     * Value of the counter as the server would hold it.
+     */
+    private final AtomicLong counter = new AtomicLong(40);
+
+    @BeforeEach
+    void setUp() {
+        sequenceService = new SequenceService(mongoTemplate);
+        sequenceService.blockSize = 10;
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq(SequenceService.COLLECTION)))
+                .thenAnswer(invocation -> new Document(SequenceService.VALUE, counter.addAndGet(10)));
+    }
+
+    @Test
+    void next_ShouldReserveABlockPerRoundTrip_AfterRaisingTheSequenceToItsFloor() {
+        List<Long> values = IntStream.range(0, 25).mapToObj(i -> sequenceService.next("member_id", () -> 40L)).toList();
+
+        assertThat(values).containsExactlyElementsOf(IntStream.rangeClosed(41, 65).mapToObj(Long::valueOf).toList());
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq(SequenceService.COLLECTION));
+        verify(mongoTemplate, times(1)).upsert(any(Query.class), argThat(update -> update.getUpdateObject().containsKey("$max")), eq(SequenceService.COLLECTION));
+    }
+
+    @Test
+    void next_ShouldNeverHandOutAValueTwice_UnderConcurrentCalls() throws Exception {
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = IntStream.range(0, 8).<Future<?>>mapToObj(i -> executor.submit(() -> {
+                for (int j = 0; j < 100; j++) {
+                    values.add(sequenceService.next("member_id", () -> 0L));
+                }
+            })).toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(values).hasSize(800);
+        verify(mongoTemplate, times(80)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq(SequenceService.COLLECTION));
+    }
+}
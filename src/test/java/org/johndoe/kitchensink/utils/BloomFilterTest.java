@@ -0,0 +1,36 @@
+package org.johndoe.kitchensink.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_ShouldHaveNoFalseNegatives_AndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01, Long.MAX_VALUE);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i))).isTrue();
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("other" + i)).count();
+        assertThat(falsePositives).isLessThan(2_000);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    @Test
+    void constructor_ShouldStayWithinTheMemoryBudget() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.001, 8 * 1024 * 8);
+
+        assertThat(filter.statistics()).containsEntry("bits", 8L * 1024 * 8);
+        IntStream.range(0, 1_000).forEach(i -> filter.add("user" + i));
+        assertThat(IntStream.range(0, 1_000).allMatch(i -> filter.mightContain("user" + i))).isTrue();
+    }
+
+    @Test
+    void constructor_ShouldRejectAnInvalidFalsePositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1, Long.MAX_VALUE));
+    }
+}
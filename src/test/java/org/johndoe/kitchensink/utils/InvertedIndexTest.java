@@ -0,0 +1,107 @@
+package org.johndoe.kitchensink.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @Test
+    void search_ShouldMatchEveryWord_WithLastWordAsPrefix() {
+        InvertedIndex index = new InvertedIndex();
+        index.add("1", "Spring Boot caching", "Caching posts with Spring");
+        index.add("2", "MongoDB indexes", "Compound indexes in Spring Data");
+        index.add("3", "Cooking", "Boots and springs");
+
+        assertEquals(List.of("1"), keys(index.search("spring cach", 10)));
+        assertEquals(List.of("2"), keys(index.search("INDEX", 10)));
+        assertTrue(index.search("spring cach ", 10).isEmpty()); // Trailing space ends the word
+        assertTrue(index.search("!!", 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesFirst_AndKeepTopK() {
+        InvertedIndex index = new InvertedIndex();
+        index.add("body", "Notes", "kotlin");
+        index.add("title", "Kotlin", "notes");
+        for (int i = 0; i < 20; i++) {
+            index.add("other" + i, "Other " + i, "filler");
+        }
+
+        List<InvertedIndex.Hit> hits = index.search("kot", 1);
+
+        assertEquals(1, hits.size());
+        assertEquals("title", hits.get(0).key());
+        assertEquals("Kotlin", hits.get(0).title());
+        assertEquals(List.of("title", "body"), keys(index.search("kotlin", 5)));
+    }
+
+    @Test
+    void remove_ShouldDropDocument_AndCompactOnceMostAreRemoved() {
+        InvertedIndex index = new InvertedIndex();
+        for (int i = 0; i < 3000; i++) {
+            index.add(String.valueOf(i), "post " + i, i % 2 == 0 ? "even" : "odd");
+        }
+        assertTrue(index.remove("0"));
+        assertFalse(index.remove("0"));
+        for (int i = 1; i < 2900; i++) {
+            index.remove(String.valueOf(i));
+        }
+
+        assertEquals(100, index.size());
+        assertEquals(50, index.search("even", 100).size());
+        assertEquals(List.of("2999"), keys(index.search("post 2999", 10)));
+        assertTrue(index.statistics().get("removedDocuments") < 1024);
+        assertTrue(index.statistics().get("estimatedBytes") > 0);
+    }
+
+    @Test
+    void add_ShouldReplaceDocumentWithSameKey() {
+        InvertedIndex index = new InvertedIndex();
+        index.add("1", "Old title", null);
+        index.add("1", "New title", null);
+
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(List.of("1"), keys(index.search("new", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void estimatedBytes_ShouldTrackTheCountOfTheIndex() {
+        InvertedIndex index = new InvertedIndex();
+        for (int i = 0; i < 3000; i++) {
+            index.add(String.valueOf(i), "post " + i, "words number" + i % 7);
+        }
+        for (int i = 0; i < 1000; i++) {
+            index.remove(String.valueOf(i * 3));
+        }
+        index.add("1", null, "replaced");
+        assertEquals(index.countBytes(), index.estimatedBytes());
+
+        for (int i = 0; i < 2000; i++) {
+            index.remove(String.valueOf(i)); // Compacts
+        }
+        assertEquals(index.countBytes(), index.estimatedBytes());
+    }
+
+    @Test
+    void add_ShouldRefuseDocuments_OnceOverBudget() {
+        InvertedIndex index = new InvertedIndex(20_000);
+        int added = 0;
+        while (index.add(String.valueOf(added), "post " + added, "some content")) {
+            added++;
+        }
+
+        assertTrue(added > 0);
+        assertTrue(index.estimatedBytes() > 20_000);
+        assertEquals(added, index.size());
+        assertFalse(index.add("another", "Another post", null));
+        assertEquals(20_000, index.statistics().get("maxBytes"));
+    }
+
+    private static List<String> keys(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::key).toList();
+    }
+}
@@ -1,15 +1,18 @@
 package org.johndoe.kitchensink.utils;
 
+import org.johndoe.kitchensink.dtos.CursorPage;
+import org.johndoe.kitchensink.exceptions.ValidationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.List;
 import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 class UtilityMethodsTest {
 
@@ -21,6 +24,8 @@ class UtilityMethodsTest {
         assertEquals("x****@domain.com", UtilityMethods.maskEmail("x@domain.com")); // Single-char username
         assertEquals("*****", UtilityMethods.maskEmail(null)); // Null email
         assertEquals("*****", UtilityMethods.maskEmail("invalidemail")); // Missing '@'
+        assertEquals("*****", UtilityMethods.maskEmail("@domain.com")); // Empty username
+        assertEquals("a****c@sub.domain.com", UtilityMethods.maskEmail("abc@sub.domain.com"));
     }
 
     @Test
@@ -46,6 +51,53 @@ class UtilityMethodsTest {
         assertEquals(false, response.get("isLast"));
     }
 
+    @Test
+    void paginateResponse_ShouldReportSliceWithSuppliedTotal() {
+        Slice<String> slice = new SliceImpl<>(List.of("Item1", "Item2"), PageRequest.of(1, 2), true);
+
+        Map<String, Object> response = UtilityMethods.paginateResponse(slice, 5L, false);
+
+        assertEquals(1, response.get("currentPage"));
+        assertEquals(true, response.get("hasNext"));
+        assertEquals(false, response.get("isLast"));
+        assertEquals(5L, response.get("totalElements"));
+        assertEquals(3, response.get("totalPages"));
+        assertEquals(false, response.get("totalIsExact"));
+    }
+
+    @Test
+    void toSlice_ShouldUseExtraRowOnlyToDetectNextPage() {
+        Slice<String> slice = UtilityMethods.toSlice(List.of("a", "b", "c"), PageRequest.of(0, 2));
+
+        assertEquals(List.of("a", "b"), slice.getContent());
+        assertTrue(slice.hasNext());
+        assertFalse(UtilityMethods.toSlice(List.of("a"), PageRequest.of(0, 2)).hasNext());
+    }
+
+    @Test
+    void cursor_ShouldRoundTrip() {
+        String cursor = UtilityMethods.encodeCursor("2025-01-01T10:00", "67c0f1a2b3c4d5e6f7a8b9c0");
+
+        assertArrayEquals(new String[]{"2025-01-01T10:00", "67c0f1a2b3c4d5e6f7a8b9c0"}, UtilityMethods.decodeCursor(cursor, 2));
+        assertEquals("abc", UtilityMethods.decodeCursor(UtilityMethods.encodeCursor("abc"), 1)[0]);
+    }
+
+    @Test
+    void decodeCursor_ShouldRejectMalformedCursor() {
+        assertThrows(ValidationException.class, () -> UtilityMethods.decodeCursor("not base64!", 2));
+        assertThrows(ValidationException.class, () -> UtilityMethods.decodeCursor(UtilityMethods.encodeCursor("only-one"), 2));
+    }
+
+    @Test
+    void cursorResponse_ShouldExposeNextCursorWithoutTotals() {
+        Map<String, Object> response = UtilityMethods.cursorResponse(new CursorPage<>(List.of("Item1"), "next"), 1);
+
+        assertEquals(List.of("Item1"), response.get("content"));
+        assertEquals("next", response.get("nextCursor"));
+        assertEquals(false, response.get("isLast"));
+        assertFalse(response.containsKey("totalElements"));
+    }
+
     @Test
     void paginateResponse_ShouldHandleEmptyPage() {
         Page<String> emptyPage = Page.empty();
@@ -59,4 +111,24 @@ class UtilityMethodsTest {
         assertEquals(0, response.get("pageSize"));
         assertEquals(true, response.get("isLast"));
     }
+
+    @Test
+    void entityTag_ShouldBeQuotedAndChangeWithTheVersion() {
+        String tag = UtilityMethods.entityTag("p1", 3L);
+
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+        assertEquals(tag, UtilityMethods.entityTag("p1", 3L));
+        assertNotEquals(tag, UtilityMethods.entityTag("p1", 4L));
+    }
+
+    @Test
+    void matchesEntityTag_ShouldCompareWeakly() {
+        String tag = UtilityMethods.entityTag("p1", 3L);
+
+        assertTrue(UtilityMethods.matchesEntityTag(tag, tag));
+        assertTrue(UtilityMethods.matchesEntityTag("\"other\", W/" + tag, tag));
+        assertTrue(UtilityMethods.matchesEntityTag("*", tag));
+        assertFalse(UtilityMethods.matchesEntityTag("\"other\"", tag));
+        assertFalse(UtilityMethods.matchesEntityTag(null, tag));
+    }
 }